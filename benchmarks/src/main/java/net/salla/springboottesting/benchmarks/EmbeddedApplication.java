@@ -0,0 +1,61 @@
+package net.salla.springboottesting.benchmarks;
+
+import net.salla.springboottesting.SpringBootTestingApplication;
+import net.salla.springboottesting.model.Employee;
+import net.salla.springboottesting.service.EmployeeService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+// starts the employee application on its own in-memory H2 database, the schema comes from the
+// flyway scripts in db/migration/h2 like in the tests, sql echo and info logging are off
+final class EmbeddedApplication {
+
+    static final int EMPLOYEES = 10_000;
+
+    private EmbeddedApplication() {
+    }
+
+    static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... args) {
+        String[] defaults = {
+                "--spring.datasource.url=jdbc:h2:mem:benchmark" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.show-sql=false",
+                "--server.port=0",
+                "--logging.level.root=warn"
+        };
+        return new SpringApplicationBuilder(SpringBootTestingApplication.class)
+                .web(webApplicationType)
+                .run(Stream.concat(Stream.of(defaults), Stream.of(args)).toArray(String[]::new));
+    }
+
+    // saves employees 0 until EMPLOYEES and returns their ids
+    static long[] seed(EmployeeService employeeService) {
+        long[] ids = new long[EMPLOYEES];
+        for (int from = 0; from < EMPLOYEES; from += EmployeeService.MAX_BATCH_SIZE) {
+            List<Employee> employees = new ArrayList<>(EmployeeService.MAX_BATCH_SIZE);
+            for (int i = from; i < Math.min(from + EmployeeService.MAX_BATCH_SIZE, EMPLOYEES); i++) {
+                employees.add(employee(i));
+            }
+            List<Employee> savedEmployees = employeeService.saveEmployees(employees);
+            for (int i = 0; i < savedEmployees.size(); i++) {
+                ids[from + i] = savedEmployees.get(i).getId();
+            }
+        }
+        return ids;
+    }
+
+    // first and last name are unique per employee too, so the name queries find exactly one row
+    static Employee employee(long i) {
+        return Employee.builder()
+                .firstName("salla" + i)
+                .lastName("mallesh" + i)
+                .email("salla" + i + "@gmail.com")
+                .build();
+    }
+}
@@ -0,0 +1,89 @@
+package net.salla.springboottesting.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.salla.springboottesting.service.EmployeeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// full request dispatch through the DispatcherServlet with MockMvc: handler mapping, argument
+// resolution, the controller, service and database, json conversion and etags. no socket involved
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmployeeControllerBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private ObjectMapper objectMapper;
+    private long[] ids;
+
+    private final AtomicLong nextEmployee = new AtomicLong(EmbeddedApplication.EMPLOYEES);
+
+    @Setup
+    public void setUp() {
+        context = EmbeddedApplication.start(WebApplicationType.SERVLET);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+        objectMapper = context.getBean(ObjectMapper.class);
+        ids = EmbeddedApplication.seed(context.getBean(EmployeeService.class));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult getEmployeeById() throws Exception {
+        return mockMvc.perform(get("/api/employees/{id}", ids[ThreadLocalRandom.current().nextInt(ids.length)]))
+                .andExpect(status().isOk())
+                .andReturn();
+    }
+
+    @Benchmark
+    public MvcResult getEmployeePage() throws Exception {
+        long after = ids[ThreadLocalRandom.current().nextInt(ids.length - PAGE_SIZE)];
+        return mockMvc.perform(get("/api/employees")
+                        .param("limit", String.valueOf(PAGE_SIZE))
+                        .param("after", String.valueOf(after)))
+                .andExpect(status().isOk())
+                .andReturn();
+    }
+
+    @Benchmark
+    public MvcResult createEmployee() throws Exception {
+        return mockMvc.perform(post("/api/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(EmbeddedApplication.employee(nextEmployee.getAndIncrement()))))
+                .andExpect(status().isCreated())
+                .andReturn();
+    }
+}
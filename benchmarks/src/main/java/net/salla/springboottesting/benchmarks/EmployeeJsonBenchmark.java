@@ -0,0 +1,87 @@
+package net.salla.springboottesting.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import net.salla.springboottesting.model.Employee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+// jackson (de)serialization of employees, with the object mapper configuration spring boot uses for
+// request and response bodies. a page is 20 employees, the default page size of the list endpoint
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmployeeJsonBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private ObjectWriter employeeWriter;
+    private ObjectReader employeeReader;
+    private ObjectWriter pageWriter;
+    private ObjectReader pageReader;
+
+    private Employee employee;
+    private List<Employee> page;
+    private byte[] employeeJson;
+    private byte[] pageJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        employeeWriter = objectMapper.writerFor(Employee.class);
+        employeeReader = objectMapper.readerFor(Employee.class);
+        pageWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, Employee.class));
+        pageReader = objectMapper.readerForListOf(Employee.class);
+
+        employee = employee(1);
+        page = LongStream.rangeClosed(1, PAGE_SIZE).mapToObj(EmployeeJsonBenchmark::employee).toList();
+        employeeJson = employeeWriter.writeValueAsBytes(employee);
+        pageJson = pageWriter.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] serializeEmployee() throws JsonProcessingException {
+        return employeeWriter.writeValueAsBytes(employee);
+    }
+
+    @Benchmark
+    public Employee deserializeEmployee() throws IOException {
+        return employeeReader.readValue(employeeJson);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return pageWriter.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public List<Employee> deserializePage() throws IOException {
+        return pageReader.readValue(pageJson);
+    }
+
+    private static Employee employee(long id) {
+        return EmbeddedApplication.employee(id).toBuilder()
+                .id(id)
+                .version(3)
+                .build();
+    }
+}
@@ -0,0 +1,104 @@
+package net.salla.springboottesting.benchmarks;
+
+import jakarta.persistence.EntityManager;
+import net.salla.springboottesting.model.Employee;
+import net.salla.springboottesting.repository.EmployeeRepository;
+import net.salla.springboottesting.service.EmployeeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// the page, email and name reads as managed entities (read = entity, how they were read before) and as
+// EmployeeView projections (read = projection). the application no longer reads pages as entities, that
+// baseline query lives here. throughput is reported per read, the allocation rate and
+// bytes per read come from the gc profiler:
+//   java -jar target/benchmarks.jar EmployeeReadBenchmark -prof gc
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmployeeReadBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"entity", "projection"})
+    public String read;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeRepository employeeRepository;
+    private EntityManager entityManager;
+    private TransactionTemplate readOnlyTransaction;
+    private boolean projection;
+    private long[] ids;
+
+    @Setup
+    public void setUp() {
+        context = EmbeddedApplication.start(WebApplicationType.NONE);
+        employeeRepository = context.getBean(EmployeeRepository.class);
+        entityManager = context.getBean(EntityManager.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+        ids = EmbeddedApplication.seed(context.getBean(EmployeeService.class));
+        projection = read.equals("projection");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object findPageAfter() {
+        long after = ids[ThreadLocalRandom.current().nextInt(ids.length - PAGE_SIZE)];
+        return projection
+                ? employeeRepository.findViewPageAfter(after, PageRequest.of(0, PAGE_SIZE))
+                : findPageAfter(after);
+    }
+
+    @Benchmark
+    public Object findByEmail() {
+        String email = "salla" + randomEmployee() + "@gmail.com";
+        return projection ? employeeRepository.findViewByEmail(email) : employeeRepository.findByEmail(email);
+    }
+
+    @Benchmark
+    public Object findByName() {
+        int i = randomEmployee();
+        return projection
+                ? employeeRepository.findViewsByName("salla" + i, "mallesh" + i)
+                : employeeRepository.findByJPQL("salla" + i, "mallesh" + i);
+    }
+
+    private static int randomEmployee() {
+        return ThreadLocalRandom.current().nextInt(EmbeddedApplication.EMPLOYEES);
+    }
+
+    // the same keyset query as findViewPageAfter, selecting the entity
+    private List<Employee> findPageAfter(long after) {
+        return readOnlyTransaction.execute(status -> entityManager
+                .createQuery("select e from Employee e where e.id > :after order by e.id", Employee.class)
+                .setParameter("after", after)
+                .setMaxResults(PAGE_SIZE)
+                .getResultList());
+    }
+}
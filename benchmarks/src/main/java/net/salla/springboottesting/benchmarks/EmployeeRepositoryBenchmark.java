@@ -0,0 +1,75 @@
+package net.salla.springboottesting.benchmarks;
+
+import net.salla.springboottesting.model.Employee;
+import net.salla.springboottesting.repository.EmployeeRepository;
+import net.salla.springboottesting.service.EmployeeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// the four custom name queries of EmployeeRepository (jpql and native, index and named params),
+// each looks up a random one of the seeded employees through the (first_name, last_name) index
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmployeeRepositoryBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private EmployeeRepository employeeRepository;
+
+    @Setup
+    public void setUp() {
+        context = EmbeddedApplication.start(WebApplicationType.NONE);
+        employeeRepository = context.getBean(EmployeeRepository.class);
+        EmbeddedApplication.seed(context.getBean(EmployeeService.class));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Employee findByJPQL() {
+        int i = randomEmployee();
+        return employeeRepository.findByJPQL("salla" + i, "mallesh" + i);
+    }
+
+    @Benchmark
+    public Employee findByJPQLNamedParams() {
+        int i = randomEmployee();
+        return employeeRepository.findByJPQLNamedParams("salla" + i, "mallesh" + i);
+    }
+
+    @Benchmark
+    public Employee findByNativeSQLIndex() {
+        int i = randomEmployee();
+        return employeeRepository.findByNativeSQLIndex("salla" + i, "mallesh" + i);
+    }
+
+    @Benchmark
+    public Employee findByNativeSQLNamed() {
+        int i = randomEmployee();
+        return employeeRepository.findByNativeSQLNamed("salla" + i, "mallesh" + i);
+    }
+
+    private static int randomEmployee() {
+        return ThreadLocalRandom.current().nextInt(EmbeddedApplication.EMPLOYEES);
+    }
+}
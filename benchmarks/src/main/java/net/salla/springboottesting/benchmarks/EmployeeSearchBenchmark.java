@@ -0,0 +1,113 @@
+package net.salla.springboottesting.benchmarks;
+
+import net.salla.springboottesting.dto.EmployeeView;
+import net.salla.springboottesting.search.EmployeeSearchIndex;
+import net.salla.springboottesting.service.EmployeeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// top 10 of the in-memory search index. the seeded employees are saved through the service, the rest
+// are inserted into the table and the index is built from it like at startup (it never reads the table
+// for a search). "s" is the widest query (a one char prefix of two thirds of all names), "gmail" matches
+// every email. results are cached until a write changes them, the AfterWrite variants put an employee
+// that is among the best matches of both first, so they measure the search a broad query costs
+// without the cache
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmployeeSearchBenchmark {
+
+    private static final int LIMIT = 10;
+    private static final int INSERT_BATCH_SIZE = 1000;
+    // past the ids the seed takes from the sequence
+    private static final long FIRST_INSERTED_ID = 1_000_000_000L;
+
+    @Param({"10000", "100000", "1000000"})
+    public int employees;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeSearchIndex employeeSearchIndex;
+    // the index only takes newer versions, every write is one
+    private long version;
+
+    @Setup
+    public void setUp() {
+        context = EmbeddedApplication.start(WebApplicationType.NONE);
+        EmbeddedApplication.seed(context.getBean(EmployeeService.class));
+        employeeSearchIndex = context.getBean(EmployeeSearchIndex.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        List<Object[]> rows = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (long i = EmbeddedApplication.EMPLOYEES; i < employees; i++) {
+            String firstName = (i % 3 == 0 ? "salla" : i % 3 == 1 ? "shiva" : "durga") + i;
+            rows.add(new Object[]{FIRST_INSERTED_ID + i, firstName, "mallesh" + i, firstName + "@gmail.com"});
+            if (rows.size() == INSERT_BATCH_SIZE || i == employees - 1) {
+                jdbcTemplate.batchUpdate("insert into employees (id, first_name, last_name, email) values (?, ?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+        employeeSearchIndex.rebuild();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<EmployeeView> searchOneCharPrefix() {
+        return employeeSearchIndex.search("s", LIMIT);
+    }
+
+    @Benchmark
+    public List<EmployeeView> searchName() {
+        return employeeSearchIndex.search("salla" + ThreadLocalRandom.current().nextInt(employees), LIMIT);
+    }
+
+    @Benchmark
+    public List<EmployeeView> searchFirstAndLastName() {
+        int i = ThreadLocalRandom.current().nextInt(EmbeddedApplication.EMPLOYEES);
+        return employeeSearchIndex.search("salla" + i + " mall", LIMIT);
+    }
+
+    @Benchmark
+    public List<EmployeeView> searchEveryEmail() {
+        return employeeSearchIndex.search("gmail", LIMIT);
+    }
+
+    @Benchmark
+    public List<EmployeeView> searchOneCharPrefixAfterWrite() {
+        write();
+        return employeeSearchIndex.search("s", LIMIT);
+    }
+
+    @Benchmark
+    public List<EmployeeView> searchEveryEmailAfterWrite() {
+        write();
+        return employeeSearchIndex.search("gmail", LIMIT);
+    }
+
+    private void write() {
+        employeeSearchIndex.put(new EmployeeView(-1, "s", "mallesh", "s@gmail.com", ++version));
+    }
+}
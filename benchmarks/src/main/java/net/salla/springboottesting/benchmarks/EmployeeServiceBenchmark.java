@@ -0,0 +1,82 @@
+package net.salla.springboottesting.benchmarks;
+
+import net.salla.springboottesting.model.Employee;
+import net.salla.springboottesting.service.EmployeeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// EmployeeServiceImpl with its transactions, cache and email filter over an embedded database.
+// with cacheSize 0 every getEmployeeById is a miss and goes to the database. saveEmployees is reported
+// per employee, so it reads against saveEmployee as the per-row and the batched create path
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmployeeServiceBenchmark {
+
+    private static final int BATCH = 100;
+
+    @Param({"10000", "0"})
+    public int cacheSize;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeService employeeService;
+    private long[] ids;
+
+    // new employees continue after the seeded ones, emails have to stay unique
+    private final AtomicLong nextEmployee = new AtomicLong(EmbeddedApplication.EMPLOYEES);
+
+    @Setup
+    public void setUp() {
+        context = EmbeddedApplication.start(WebApplicationType.NONE, "--employee.cache.maximum-size=" + cacheSize);
+        employeeService = context.getBean(EmployeeService.class);
+        ids = EmbeddedApplication.seed(employeeService);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Employee saveEmployee() {
+        return employeeService.saveEmployee(EmbeddedApplication.employee(nextEmployee.getAndIncrement()));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<Employee> saveEmployees() {
+        List<Employee> employees = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            employees.add(EmbeddedApplication.employee(nextEmployee.getAndIncrement()));
+        }
+        return employeeService.saveEmployees(employees);
+    }
+
+    @Benchmark
+    public Optional<Employee> getEmployeeById() {
+        return employeeService.getEmployeeById(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+    }
+}
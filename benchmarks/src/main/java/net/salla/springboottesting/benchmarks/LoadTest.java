@@ -0,0 +1,377 @@
+package net.salla.springboottesting.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// repeatable local capacity test of /api/employees over real http. it starts the application on an
+// embedded database (or uses --url), creates employees and then runs a weighted mix of create, get,
+// list, update and delete calls, options are described in LoadTestOptions:
+//   java -cp target/benchmarks.jar net.salla.springboottesting.benchmarks.LoadTest --model=open --rate=2000
+// platform against virtual request threads (java 21) is two runs, the second with --profiles=virtual-threads.
+// the reactive application (reactive/, port 8081) is measured with --url, it has no paged list so leave
+// list out of the mix for both
+// latency is taken from the time a request was scheduled to start, not from when it was sent, so a
+// stalled application shows up in the percentiles instead of just slowing the load down (coordinated
+// omission). the time from sending (service time) is printed next to it. histograms are HdrHistograms
+// with 3 significant digits, recorded in microseconds.
+public class LoadTest {
+
+    enum Operation {
+        CREATE, GET, LIST, UPDATE, DELETE
+    }
+
+    private static final int PAGE_SIZE = 20;
+
+    private static final int SEED_BATCH_SIZE = 1000;
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final LoadTestOptions options;
+    private final URI baseUri;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // every operation repeated by its weight, a random element is the next call
+    private final Operation[] mix;
+    private final IdPool ids = new IdPool();
+
+    // emails have to be unique, also across runs against the same --url
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong nextEmployee = new AtomicLong();
+    private final AtomicLong nextUpdate = new AtomicLong();
+
+    LoadTest(LoadTestOptions options, URI baseUri) {
+        this.options = options;
+        this.baseUri = baseUri;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        List<Operation> mix = new ArrayList<>();
+        options.mix().forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                mix.add(operation);
+            }
+        });
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("The mix has no calls with a weight above 0");
+        }
+        this.mix = mix.toArray(Operation[]::new);
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        ConfigurableApplicationContext context = null;
+        String url = options.url();
+        if (url == null) {
+            // the same connection limit whatever the profiles, tomcat refuses connections beyond it
+            List<String> applicationArgs = new ArrayList<>(List.of(
+                    "--server.tomcat.max-connections=" + Math.max(8192, 2 * options.connections()),
+                    "--server.tomcat.accept-count=1000"));
+            if (options.profiles() != null) {
+                applicationArgs.add("--spring.profiles.active=" + options.profiles());
+            }
+            context = EmbeddedApplication.start(WebApplicationType.SERVLET, applicationArgs.toArray(String[]::new));
+            url = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+        }
+        try {
+            new LoadTest(options, URI.create(url)).run();
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    void run() throws IOException, InterruptedException {
+        seed();
+        System.out.printf("%s model, %d connections, %s, %s warm-up, %s measured, %d employees, %s%s%n",
+                options.model().name().toLowerCase(), options.connections(),
+                options.rate() > 0 ? options.rate() + " requests/s" : "unpaced",
+                options.warmUp(), options.duration(), options.employees(), baseUri,
+                options.profiles() != null ? " (" + options.profiles() + ")" : "");
+        execute(options.warmUp());
+        // throughput is over the time until the last answer came in, which can be later than planned
+        long start = System.nanoTime();
+        Map<Operation, Stats> stats = execute(options.duration());
+        report(stats, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    // the reactive application has no batch endpoint, there employees are created one by one
+    private void seed() throws IOException, InterruptedException {
+        boolean batches = true;
+        for (int from = 0; from < options.employees(); from += SEED_BATCH_SIZE) {
+            List<Map<String, String>> employees = new ArrayList<>(SEED_BATCH_SIZE);
+            for (int i = from; i < Math.min(from + SEED_BATCH_SIZE, options.employees()); i++) {
+                employees.add(employee(nextEmployee.getAndIncrement()));
+            }
+            if (batches) {
+                HttpResponse<byte[]> response = httpClient.send(
+                        request("/api/employees/batch").POST(body(employees)).build(),
+                        HttpResponse.BodyHandlers.ofByteArray());
+                batches = response.statusCode() != 404 && response.statusCode() != 405;
+                if (batches) {
+                    for (JsonNode employee : created(response)) {
+                        ids.add(employee.get("id").asLong());
+                    }
+                    continue;
+                }
+            }
+            for (Map<String, String> employee : employees) {
+                HttpResponse<byte[]> response = httpClient.send(
+                        request("/api/employees").POST(body(employee)).build(),
+                        HttpResponse.BodyHandlers.ofByteArray());
+                ids.add(created(response).get("id").asLong());
+            }
+        }
+    }
+
+    private JsonNode created(HttpResponse<byte[]> response) throws IOException {
+        if (response.statusCode() != 201) {
+            throw new IllegalStateException("Creating employees failed with status " + response.statusCode());
+        }
+        return objectMapper.readTree(response.body());
+    }
+
+    private Map<Operation, Stats> execute(Duration duration) throws InterruptedException {
+        Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new Stats());
+        }
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        if (options.model() == LoadTestOptions.Model.OPEN) {
+            runOpen(stats, start, end);
+        } else {
+            runClosed(stats, start, end);
+        }
+        return stats;
+    }
+
+    // one thread starts the requests on schedule, responses are handled on the http client's threads.
+    // when all connections are busy the schedule falls behind, and the requests started late are
+    // measured from their scheduled time
+    private void runOpen(Map<Operation, Stats> stats, long start, long end) throws InterruptedException {
+        Semaphore connections = new Semaphore(options.connections());
+        for (long request = 0; ; request++) {
+            long scheduled = start + (long) (request * 1e9 / options.rate());
+            if (scheduled >= end) {
+                break;
+            }
+            parkUntil(scheduled);
+            connections.acquire();
+            Call call = nextCall();
+            long sent = System.nanoTime();
+            httpClient.sendAsync(call.request(), HttpResponse.BodyHandlers.ofByteArray())
+                    .whenComplete((response, failure) -> {
+                        complete(stats.get(call.operation()), call.operation(), response, failure, scheduled, sent);
+                        connections.release();
+                    });
+        }
+        // requests still in flight count towards this phase
+        connections.acquire(options.connections());
+    }
+
+    // every connection is a thread that sends its next request once the previous answer is in. with a
+    // rate each connection is paced at its share of it, staggered so they do not all start together
+    private void runClosed(Map<Operation, Stats> stats, long start, long end) throws InterruptedException {
+        long period = options.rate() > 0 ? (long) (1e9 * options.connections() / options.rate()) : 0;
+        ExecutorService connections = Executors.newFixedThreadPool(options.connections());
+        for (int connection = 0; connection < options.connections(); connection++) {
+            long first = start + period * connection / options.connections();
+            connections.execute(() -> {
+                long scheduled = first;
+                while (true) {
+                    if (period > 0) {
+                        parkUntil(scheduled);
+                    } else {
+                        scheduled = System.nanoTime();
+                    }
+                    if (scheduled >= end || System.nanoTime() >= end) {
+                        return;
+                    }
+                    Call call = nextCall();
+                    long sent = System.nanoTime();
+                    try {
+                        HttpResponse<byte[]> response = httpClient.send(call.request(), HttpResponse.BodyHandlers.ofByteArray());
+                        complete(stats.get(call.operation()), call.operation(), response, null, scheduled, sent);
+                    } catch (IOException e) {
+                        complete(stats.get(call.operation()), call.operation(), null, e, scheduled, sent);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    scheduled += period;
+                }
+            });
+        }
+        connections.shutdown();
+        connections.awaitTermination(end - System.nanoTime() + 2 * REQUEST_TIMEOUT.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private static void parkUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private void complete(Stats stats, Operation operation, HttpResponse<byte[]> response, Throwable failure,
+                          long scheduled, long sent) {
+        long now = System.nanoTime();
+        stats.latency.recordValue(TimeUnit.NANOSECONDS.toMicros(now - scheduled));
+        stats.serviceTime.recordValue(TimeUnit.NANOSECONDS.toMicros(now - sent));
+        if (failure != null || response.statusCode() >= 400) {
+            stats.errors.increment();
+            return;
+        }
+        if (operation == Operation.CREATE) {
+            try {
+                ids.add(objectMapper.readTree(response.body()).get("id").asLong());
+            } catch (IOException e) {
+                stats.errors.increment();
+            }
+        }
+    }
+
+    // calls that need an existing employee turn into a create when there is none left
+    private Call nextCall() {
+        Operation operation = mix[ThreadLocalRandom.current().nextInt(mix.length)];
+        long id = switch (operation) {
+            case CREATE -> -1;
+            case DELETE -> ids.take();
+            default -> ids.random();
+        };
+        if (id < 0) {
+            operation = Operation.CREATE;
+        }
+        HttpRequest request = switch (operation) {
+            case CREATE -> request("/api/employees").POST(body(employee(nextEmployee.getAndIncrement()))).build();
+            case GET -> request("/api/employees/" + id).GET().build();
+            case LIST -> request("/api/employees?limit=" + PAGE_SIZE + "&after=" + (id - 1)).GET().build();
+            case UPDATE -> request("/api/employees/" + id).PUT(body(Map.of(
+                    "firstName", "updated" + id,
+                    "lastName", "mallesh",
+                    "email", "updated" + nextUpdate.getAndIncrement() + "." + runId + "@gmail.com"))).build();
+            case DELETE -> request("/api/employees/" + id).DELETE().build();
+        };
+        return new Call(operation, request);
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json");
+    }
+
+    private HttpRequest.BodyPublisher body(Object value) {
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(value));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Map<String, String> employee(long i) {
+        return Map.of(
+                "firstName", "salla" + i,
+                "lastName", "mallesh" + i,
+                "email", "salla" + i + "." + runId + "@gmail.com");
+    }
+
+    private static void report(Map<Operation, Stats> stats, Duration elapsed) {
+        System.out.printf("%-8s %9s %7s %9s %9s %9s %9s %9s %15s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "service p99 ms");
+        Stats all = new Stats();
+        stats.forEach((operation, operationStats) -> {
+            all.latency.add(operationStats.latency);
+            all.serviceTime.add(operationStats.serviceTime);
+            all.errors.add(operationStats.errors.sum());
+            if (operationStats.latency.getTotalCount() > 0) {
+                print(operation.name().toLowerCase(), operationStats, elapsed);
+            }
+        });
+        print("all", all, elapsed);
+    }
+
+    private static void print(String endpoint, Stats stats, Duration elapsed) {
+        Histogram latency = stats.latency;
+        System.out.printf("%-8s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %15.2f%n",
+                endpoint, latency.getTotalCount(), stats.errors.sum(),
+                latency.getTotalCount() * 1e9 / elapsed.toNanos(),
+                millis(latency.getValueAtPercentile(50)),
+                millis(latency.getValueAtPercentile(99)),
+                millis(latency.getValueAtPercentile(99.9)),
+                millis(latency.getMaxValue()),
+                millis(stats.serviceTime.getValueAtPercentile(99)));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private record Call(Operation operation, HttpRequest request) {
+    }
+
+    private static final class Stats {
+
+        private final Histogram latency = new ConcurrentHistogram(3);
+        private final Histogram serviceTime = new ConcurrentHistogram(3);
+        private final LongAdder errors = new LongAdder();
+    }
+
+    // ids of the employees this run knows to exist. a delete takes its id out before it is sent, so two
+    // deletes never go for the same employee, while a get or update may still race a delete and see 404
+    private static final class IdPool {
+
+        private long[] ids = new long[1024];
+        private int size;
+
+        synchronized void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        synchronized long random() {
+            return size == 0 ? -1 : ids[ThreadLocalRandom.current().nextInt(size)];
+        }
+
+        synchronized long take() {
+            if (size == 0) {
+                return -1;
+            }
+            int index = ThreadLocalRandom.current().nextInt(size);
+            long id = ids[index];
+            ids[index] = ids[--size];
+            return id;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package net.salla.springboottesting.benchmarks;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+// command line of LoadTest, every option is --name=value:
+//   --model=closed|open  closed: each connection sends its next request when the previous answer is in,
+//                        open: requests start at a fixed rate whether or not earlier ones are answered
+//   --connections=64     closed: concurrent connections, open: cap on requests in flight
+//   --rate=0             requests per second over all connections, required for open runs. a closed run
+//                        with a rate paces every connection (a connection that falls behind catches up)
+//   --duration=30s --warm-up=10s
+//   --mix=create=10,get=50,list=20,update=15,delete=5   relative weights of the calls
+//   --employees=10000    employees created before the warm-up
+//   --url=http://host:port  run against a running application instead of an embedded one
+//   --profiles=virtual-threads  spring profiles of the embedded application
+record LoadTestOptions(Model model, int connections, int rate, Duration duration, Duration warmUp,
+                       Map<LoadTest.Operation, Integer> mix, int employees, String url, String profiles) {
+
+    enum Model {
+        CLOSED, OPEN
+    }
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            values.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+
+        Model model = Model.valueOf(values.getOrDefault("model", "closed").toUpperCase());
+        int rate = Integer.parseInt(values.getOrDefault("rate", "0"));
+        if (model == Model.OPEN && rate <= 0) {
+            throw new IllegalArgumentException("An open model run needs --rate");
+        }
+
+        Map<LoadTest.Operation, Integer> mix = new EnumMap<>(LoadTest.Operation.class);
+        for (String weight : values.getOrDefault("mix", "create=10,get=50,list=20,update=15,delete=5").split(",")) {
+            String[] operationAndWeight = weight.split("=");
+            mix.put(LoadTest.Operation.valueOf(operationAndWeight[0].trim().toUpperCase()),
+                    Integer.parseInt(operationAndWeight[1].trim()));
+        }
+
+        return new LoadTestOptions(model,
+                Integer.parseInt(values.getOrDefault("connections", "64")),
+                rate,
+                DurationStyle.detectAndParse(values.getOrDefault("duration", "30s")),
+                DurationStyle.detectAndParse(values.getOrDefault("warm-up", "10s")),
+                mix,
+                Integer.parseInt(values.getOrDefault("employees", "10000")),
+                values.get("url"),
+                values.get("profiles"));
+    }
+}
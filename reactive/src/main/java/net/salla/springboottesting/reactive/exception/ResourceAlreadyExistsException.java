@@ -0,0 +1,15 @@
+package net.salla.springboottesting.reactive.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ResourceAlreadyExistsException extends RuntimeException{
+    public ResourceAlreadyExistsException(String message){
+        super(message);
+    }
+
+    public ResourceAlreadyExistsException(String message,Throwable cause){
+        super(message,cause);
+    }
+}
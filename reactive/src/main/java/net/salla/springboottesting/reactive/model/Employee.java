@@ -0,0 +1,30 @@
+package net.salla.springboottesting.reactive.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+// same row as the servlet application's Employee, the schema is owned by its flyway scripts
+@AllArgsConstructor
+@NoArgsConstructor
+@Setter
+@Getter
+@Builder(toBuilder = true)
+@Table("employees")
+public class Employee {
+
+    // assigned from employees_seq by EmployeeIdAllocator before the insert, there is no auto increment
+    @Id
+    private Long id;
+    @Column("first_name")
+    private String firstName;
+    @Column("last_name")
+    private String lastName;
+    private String email;
+    // null until the first insert, which is also how spring data tells an insert from an update
+    @Version
+    private Long version;
+
+}
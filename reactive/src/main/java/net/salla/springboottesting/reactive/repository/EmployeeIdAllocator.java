@@ -0,0 +1,94 @@
+package net.salla.springboottesting.reactive.repository;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.data.r2dbc.dialect.DialectResolver;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// hands out employee ids from employees_seq the way hibernate's pooled optimizer does in the servlet
+// application (allocationSize 50): a value v read from the sequence reserves the ids v-49..v, so both
+// applications can insert into the same table. on mysql the sequence is a table, it is read and
+// advanced in its own transaction so a rolled back insert never gives a reserved block back.
+@Component
+public class EmployeeIdAllocator {
+
+    static final int ALLOCATION_SIZE = 50;
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator newTransaction;
+    private final boolean sequence;
+
+    private final AtomicReference<Block> current = new AtomicReference<>(new Block(1, 0));
+    private final AtomicReference<Mono<Void>> refilling = new AtomicReference<>();
+
+    public EmployeeIdAllocator(DatabaseClient databaseClient, ConnectionFactory connectionFactory,
+                               ReactiveTransactionManager transactionManager) {
+        this.databaseClient = databaseClient;
+        this.newTransaction = TransactionalOperator.create(transactionManager,
+                new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+        this.sequence = DialectResolver.getDialect(connectionFactory) instanceof H2Dialect;
+    }
+
+    public Mono<Long> nextId() {
+        return Mono.defer(() -> {
+            long id = current.get().take();
+            return id > 0 ? Mono.just(id) : refill().then(nextId());
+        });
+    }
+
+    // callers finding the block used up share one round trip for the next one
+    private Mono<Void> refill() {
+        Mono<Void> pending = refilling.get();
+        if (pending != null) {
+            return pending;
+        }
+        Mono<Void> refill = nextSequenceValue()
+                .doOnNext(value -> current.set(new Block(Math.max(1, value - ALLOCATION_SIZE + 1), value)))
+                .doFinally(signal -> refilling.set(null))
+                .then()
+                .cache();
+        return refilling.compareAndSet(null, refill) ? refill : refill();
+    }
+
+    private Mono<Long> nextSequenceValue() {
+        if (sequence) {
+            return databaseClient.sql("select next value for employees_seq")
+                    .map(row -> row.get(0, Long.class))
+                    .one();
+        }
+        return databaseClient.sql("select next_val from employees_seq for update")
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .flatMap(value -> databaseClient.sql("update employees_seq set next_val = :next")
+                        .bind("next", value + ALLOCATION_SIZE)
+                        .then()
+                        .thenReturn(value))
+                .as(newTransaction::transactional);
+    }
+
+    private static final class Block {
+
+        private final AtomicLong next;
+        private final long last;
+
+        private Block(long first, long last) {
+            this.next = new AtomicLong(first);
+            this.last = last;
+        }
+
+        // 0 once the block is used up
+        private long take() {
+            long id = next.getAndIncrement();
+            return id <= last ? id : 0;
+        }
+    }
+}
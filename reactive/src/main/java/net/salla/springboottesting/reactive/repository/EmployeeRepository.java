@@ -0,0 +1,22 @@
+package net.salla.springboottesting.reactive.repository;
+
+import net.salla.springboottesting.reactive.model.Employee;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface EmployeeRepository extends ReactiveCrudRepository<Employee, Long> {
+
+    Mono<Employee> findByEmail(String email);
+
+    // rows are emitted as the subscriber requests them, a slow client does not make the whole table buffer
+    @Query("select * from employees order by id")
+    Flux<Employee> streamAll();
+
+    // the number of deleted rows tells whether the employee existed
+    @Modifying
+    @Query("delete from employees where id = :id")
+    Mono<Integer> deleteEmployeeById(long id);
+}
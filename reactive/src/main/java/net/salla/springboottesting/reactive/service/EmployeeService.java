@@ -0,0 +1,20 @@
+package net.salla.springboottesting.reactive.service;
+
+import net.salla.springboottesting.reactive.model.Employee;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface EmployeeService {
+    Mono<Employee> saveEmployee(Employee employee);
+
+    // emits employees as the subscriber asks for them
+    Flux<Employee> getAllEmployees();
+
+    Mono<Employee> getEmployeeById(Long id);
+
+    // empty when there is no employee with that id
+    Mono<Employee> updateEmployee(Long id, Employee employee);
+
+    // errors with ResourceNotFoundException when there is no employee with that id
+    Mono<Void> deleteEmployee(Long id);
+}
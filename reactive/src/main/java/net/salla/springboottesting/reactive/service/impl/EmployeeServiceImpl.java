@@ -0,0 +1,84 @@
+package net.salla.springboottesting.reactive.service.impl;
+
+import net.salla.springboottesting.reactive.exception.ResourceAlreadyExistsException;
+import net.salla.springboottesting.reactive.exception.ResourceNotFoundException;
+import net.salla.springboottesting.reactive.exception.ResourceVersionConflictException;
+import net.salla.springboottesting.reactive.model.Employee;
+import net.salla.springboottesting.reactive.repository.EmployeeIdAllocator;
+import net.salla.springboottesting.reactive.repository.EmployeeRepository;
+import net.salla.springboottesting.reactive.service.EmployeeService;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+public class EmployeeServiceImpl implements EmployeeService {
+
+    // name of the unique constraint on employees.email, see the servlet application's migrations
+    static final String EMAIL_UNIQUE = "uk_employees_email";
+
+    private EmployeeRepository employeeRepository;
+
+    private EmployeeIdAllocator employeeIdAllocator;
+
+    public EmployeeServiceImpl(EmployeeRepository employeeRepository, EmployeeIdAllocator employeeIdAllocator) {
+        this.employeeRepository = employeeRepository;
+        this.employeeIdAllocator = employeeIdAllocator;
+    }
+
+    @Override
+    public Mono<Employee> saveEmployee(Employee employee) {
+
+        // the unique index on email decides, a select before the insert would cost a round trip and still race
+        return employeeIdAllocator.nextId()
+                .flatMap(id -> employeeRepository.save(employee.toBuilder().id(id).version(null).build()))
+                .onErrorMap(DataIntegrityViolationException.class, e -> isDuplicateEmail(e)
+                        ? new ResourceAlreadyExistsException("Employee already exits with given email: " + employee.getEmail(), e)
+                        : e);
+    }
+
+    @Override
+    public Flux<Employee> getAllEmployees() {
+        return employeeRepository.streamAll();
+    }
+
+    @Override
+    public Mono<Employee> getEmployeeById(Long id) {
+        return employeeRepository.findById(id);
+    }
+
+    @Override
+    public Mono<Employee> updateEmployee(Long id, Employee employee) {
+        return employeeRepository.findById(id)
+                .flatMap(savedEmployee -> {
+                    savedEmployee.setFirstName(employee.getFirstName());
+                    savedEmployee.setLastName(employee.getLastName());
+                    savedEmployee.setEmail(employee.getEmail());
+                    return employeeRepository.save(savedEmployee);
+                })
+                .onErrorMap(DataIntegrityViolationException.class, e -> isDuplicateEmail(e)
+                        ? new ResourceAlreadyExistsException("Employee already exits with given email: " + employee.getEmail(), e)
+                        : e)
+                .onErrorMap(OptimisticLockingFailureException.class,
+                        e -> new ResourceVersionConflictException("Employee was changed concurrently: " + id, e));
+    }
+
+    @Override
+    public Mono<Void> deleteEmployee(Long id) {
+        return employeeRepository.deleteEmployeeById(id)
+                .flatMap(deleted -> deleted == 0
+                        ? Mono.error(new ResourceNotFoundException("Employee not found with id: " + id))
+                        : Mono.empty());
+    }
+
+    private static boolean isDuplicateEmail(DataIntegrityViolationException exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().toLowerCase().contains(EMAIL_UNIQUE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
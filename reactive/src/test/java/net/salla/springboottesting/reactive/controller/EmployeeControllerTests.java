@@ -0,0 +1,107 @@
+package net.salla.springboottesting.reactive.controller;
+
+import net.salla.springboottesting.reactive.exception.ResourceNotFoundException;
+import net.salla.springboottesting.reactive.model.Employee;
+import net.salla.springboottesting.reactive.service.EmployeeService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+
+@WebFluxTest(EmployeeController.class)
+public class EmployeeControllerTests {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private EmployeeService employeeService;
+
+    private final Employee employee = Employee.builder()
+            .id(1L)
+            .firstName("salla")
+            .lastName("mallesh")
+            .email("salla@gmail.com")
+            .version(0L)
+            .build();
+
+    //Junit test for create employee Rest api
+    @DisplayName("Junit test for create employee")
+    @Test
+    public void givenEmployeeObject_whenCreateEmployee_thenReturnSavedEmployee() {
+
+        // given - precondition  or  setup
+        given(employeeService.saveEmployee(any(Employee.class))).willReturn(Mono.just(employee));
+
+        // when - action or the behaviour that we are going to test
+        WebTestClient.ResponseSpec response = webTestClient.post().uri("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(employee)
+                .exchange();
+
+        // then - verify the output
+        response.expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(1)
+                .jsonPath("$.email").isEqualTo(employee.getEmail());
+    }
+
+    //Junit test for streaming all employees Rest api
+    @DisplayName("Junit test for streaming all employees")
+    @Test
+    public void givenListOfEmployees_whenStreamAllEmployees_thenReturnOneLinePerEmployee() {
+
+        // given - precondition  or  setup
+        Employee employee1 = employee.toBuilder().id(2L).email("kuruma@gmail.com").build();
+        given(employeeService.getAllEmployees()).willReturn(Flux.just(employee, employee1));
+
+        // when - action or the behaviour that we are going to test
+        WebTestClient.ResponseSpec response = webTestClient.get().uri("/api/employees")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange();
+
+        // then - verify the output
+        response.expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(Employee.class).hasSize(2);
+    }
+
+    //Junit test for get employee by id Rest api - negative scenario
+    @DisplayName("Junit test for get employee by id not found")
+    @Test
+    public void givenInvalidEmployeeId_whenGetEmployeeById_thenReturnEmpty() {
+
+        // given - precondition  or  setup
+        given(employeeService.getEmployeeById(5L)).willReturn(Mono.empty());
+
+        // when - action or the behaviour that we are going to test
+        WebTestClient.ResponseSpec response = webTestClient.get().uri("/api/employees/{id}", 5L).exchange();
+
+        // then - verify the output
+        response.expectStatus().isNotFound();
+    }
+
+    //Junit test for delete employee Rest api - missing employee
+    @DisplayName("Junit test for delete employee not found")
+    @Test
+    public void givenMissingEmployeeId_whenDeleteEmployee_thenReturn404() {
+
+        // given - precondition  or  setup
+        given(employeeService.deleteEmployee(5L))
+                .willReturn(Mono.error(new ResourceNotFoundException("Employee not found with id: 5")));
+
+        // when - action or the behaviour that we are going to test
+        WebTestClient.ResponseSpec response = webTestClient.delete().uri("/api/employees/{id}", 5L).exchange();
+
+        // then - verify the output
+        response.expectStatus().isNotFound();
+    }
+}
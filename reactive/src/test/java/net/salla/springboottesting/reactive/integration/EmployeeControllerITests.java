@@ -0,0 +1,80 @@
+package net.salla.springboottesting.reactive.integration;
+
+import net.salla.springboottesting.reactive.model.Employee;
+import net.salla.springboottesting.reactive.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("h2")
+public class EmployeeControllerITests {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    private Employee employee;
+
+    @BeforeEach
+    void setup() {
+        employeeRepository.deleteAll().block();
+        employee = Employee.builder()
+                .firstName("salla")
+                .lastName("mallesh")
+                .email("salla@gmail.com")
+                .build();
+    }
+
+    //Junit test for the create, read, update and delete round trip
+    @DisplayName("Junit test for the create, read, update and delete round trip")
+    @Test
+    public void givenEmployeeObject_whenCreateReadUpdateDelete_thenFollowServletContract() {
+
+        // given - precondition  or  setup
+        Employee savedEmployee = webTestClient.post().uri("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(employee)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Employee.class).returnResult().getResponseBody();
+
+        // when - action or the behaviour that we are going to test
+        webTestClient.post().uri("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(employee)
+                .exchange()
+                .expectStatus().isEqualTo(409);
+        webTestClient.put().uri("/api/employees/{id}", savedEmployee.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(employee.toBuilder().firstName("ram").build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.firstName").isEqualTo("ram")
+                .jsonPath("$.version").isEqualTo(1);
+        webTestClient.get().uri("/api/employees")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Employee.class).hasSize(1);
+
+        // then - verify the output
+        webTestClient.delete().uri("/api/employees/{id}", savedEmployee.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("Employee deleted successfully!");
+        webTestClient.get().uri("/api/employees/{id}", savedEmployee.getId())
+                .exchange()
+                .expectStatus().isNotFound();
+        assertThat(savedEmployee.getId()).isPositive();
+    }
+}
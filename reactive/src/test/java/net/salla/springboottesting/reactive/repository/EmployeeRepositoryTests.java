@@ -0,0 +1,116 @@
+package net.salla.springboottesting.reactive.repository;
+
+import net.salla.springboottesting.reactive.model.Employee;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataR2dbcTest
+@ActiveProfiles("h2")
+@Import(EmployeeIdAllocator.class)
+public class EmployeeRepositoryTests {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeIdAllocator employeeIdAllocator;
+
+    private Employee employee;
+
+    @BeforeEach
+    public void setup() {
+        employeeRepository.deleteAll().block();
+        employee = Employee.builder()
+                .firstName("salla")
+                .lastName("mallesh")
+                .email("salla@gmail.com")
+                .build();
+    }
+
+    //Junit test for save employee operation
+    @DisplayName("Junit test for save employee operation")
+    @Test
+    public void givenEmployeeObject_whenSave_thenReturnSavedEmployee() {
+
+        // given - precondition  or  setup
+        long id = employeeIdAllocator.nextId().block();
+
+        // when - action or the behaviour that we are going to test
+        Employee savedEmployee = employeeRepository.save(employee.toBuilder().id(id).build()).block();
+
+        // then - verify the output
+        assertThat(savedEmployee.getVersion()).isZero();
+        StepVerifier.create(employeeRepository.findByEmail("salla@gmail.com"))
+                .assertNext(foundEmployee -> assertThat(foundEmployee.getId()).isEqualTo(id))
+                .verifyComplete();
+    }
+
+    //Junit test for ids handed out across several sequence blocks
+    @DisplayName("Junit test for ids handed out across several sequence blocks")
+    @Test
+    public void givenConcurrentCallers_whenNextId_thenIdsAreUnique() {
+
+        // given - precondition  or  setup
+        int count = 3 * EmployeeIdAllocator.ALLOCATION_SIZE;
+
+        // when - action or the behaviour that we are going to test
+        List<Long> ids = Flux.range(0, count)
+                .flatMap(i -> employeeIdAllocator.nextId(), 16)
+                .collectList()
+                .block();
+
+        // then - verify the output
+        assertThat(ids).hasSize(count).doesNotHaveDuplicates().allMatch(id -> id > 0);
+    }
+
+    //Junit test for streaming all employees with backpressure
+    @DisplayName("Junit test for streaming all employees with backpressure")
+    @Test
+    public void givenEmployeeList_whenStreamAll_thenEmitOnlyWhatIsRequested() {
+
+        // given - precondition  or  setup
+        Flux.range(0, 5)
+                .concatMap(i -> employeeIdAllocator.nextId()
+                        .flatMap(id -> employeeRepository.save(employee.toBuilder().id(id).email("salla" + i + "@gmail.com").build())))
+                .blockLast();
+
+        // when - action or the behaviour that we are going to test
+        StepVerifier.FirstStep<Employee> stream = StepVerifier.create(employeeRepository.streamAll(), 2);
+
+        // then - verify the output
+        stream.expectNextCount(2)
+                .expectNoEvent(java.time.Duration.ofMillis(100))
+                .thenRequest(3)
+                .expectNextCount(3)
+                .verifyComplete();
+    }
+
+    //Junit test for single statement delete
+    @DisplayName("Junit test for single statement delete")
+    @Test
+    public void givenEmployeeObject_whenDeleteEmployeeById_thenReturnDeletedRows() {
+
+        // given - precondition  or  setup
+        long id = employeeIdAllocator.nextId().block();
+        employeeRepository.save(employee.toBuilder().id(id).build()).block();
+
+        // when - action or the behaviour that we are going to test
+        Integer deleted = employeeRepository.deleteEmployeeById(id).block();
+        Integer deletedAgain = employeeRepository.deleteEmployeeById(id).block();
+
+        // then - verify the output
+        assertThat(deleted).isEqualTo(1);
+        assertThat(deletedAgain).isZero();
+    }
+}
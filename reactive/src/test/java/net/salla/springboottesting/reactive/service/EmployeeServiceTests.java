@@ -0,0 +1,116 @@
+package net.salla.springboottesting.reactive.service;
+
+import net.salla.springboottesting.reactive.exception.ResourceAlreadyExistsException;
+import net.salla.springboottesting.reactive.exception.ResourceNotFoundException;
+import net.salla.springboottesting.reactive.model.Employee;
+import net.salla.springboottesting.reactive.repository.EmployeeIdAllocator;
+import net.salla.springboottesting.reactive.repository.EmployeeRepository;
+import net.salla.springboottesting.reactive.service.impl.EmployeeServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeServiceTests {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+    @Mock
+    private EmployeeIdAllocator employeeIdAllocator;
+    @InjectMocks
+    private EmployeeServiceImpl employeeService;
+
+    private Employee employee;
+
+    @BeforeEach
+    public void setup() {
+        employee = Employee.builder()
+                .firstName("salla")
+                .lastName("mallesh")
+                .email("salla@gmail.com")
+                .build();
+    }
+
+    //Junit test for save employee method
+    @DisplayName("Junit test for save employee method")
+    @Test
+    public void givenEmployeeObject_whenSaveEmployee_thenSaveWithAllocatedId() {
+
+        // given - precondition  or  setup
+        given(employeeIdAllocator.nextId()).willReturn(Mono.just(7L));
+        given(employeeRepository.save(any(Employee.class))).willAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        // when - action or the behaviour that we are going to test
+        Mono<Employee> savedEmployee = employeeService.saveEmployee(employee);
+
+        // then - verify the output
+        StepVerifier.create(savedEmployee)
+                .assertNext(saved -> assertThat(saved.getId()).isEqualTo(7L))
+                .verifyComplete();
+    }
+
+    //Junit test for save employee method which throws exception
+    @DisplayName("Junit test for save employee method which throws exception")
+    @Test
+    public void givenExistingEmail_whenSaveEmployee_thenThrowsException() {
+
+        // given - precondition  or  setup
+        given(employeeIdAllocator.nextId()).willReturn(Mono.just(7L));
+        given(employeeRepository.save(any(Employee.class))).willReturn(Mono.error(new DuplicateKeyException(
+                "Unique index or primary key violation: \"PUBLIC.UK_EMPLOYEES_EMAIL_INDEX_8 ON PUBLIC.EMPLOYEES(EMAIL)\"")));
+
+        // when - action or the behaviour that we are going to test
+        Mono<Employee> savedEmployee = employeeService.saveEmployee(employee);
+
+        // then - verify the output
+        StepVerifier.create(savedEmployee)
+                .expectError(ResourceAlreadyExistsException.class)
+                .verify();
+    }
+
+    //Junit test for update employee method with a missing employee
+    @DisplayName("Junit test for update employee method with a missing employee")
+    @Test
+    public void givenMissingEmployeeId_whenUpdateEmployee_thenReturnEmpty() {
+
+        // given - precondition  or  setup
+        given(employeeRepository.findById(5L)).willReturn(Mono.empty());
+
+        // when - action or the behaviour that we are going to test
+        Mono<Employee> updatedEmployee = employeeService.updateEmployee(5L, employee);
+
+        // then - verify the output
+        StepVerifier.create(updatedEmployee).verifyComplete();
+        verify(employeeRepository, never()).save(any());
+    }
+
+    //Junit test for delete method with a missing employee
+    @DisplayName("Junit test for delete method with a missing employee")
+    @Test
+    public void givenMissingEmployeeId_whenDeleteEmployee_thenThrowsException() {
+
+        // given - precondition  or  setup
+        given(employeeRepository.deleteEmployeeById(5L)).willReturn(Mono.just(0));
+
+        // when - action or the behaviour that we are going to test
+        Mono<Void> deleted = employeeService.deleteEmployee(5L);
+
+        // then - verify the output
+        StepVerifier.create(deleted)
+                .expectError(ResourceNotFoundException.class)
+                .verify();
+    }
+}
@@ -0,0 +1,11 @@
+create table if not exists employees (
+    id bigint not null,
+    email varchar(255),
+    first_name varchar(255) not null,
+    last_name varchar(255) not null,
+    version bigint not null default 0,
+    primary key (id),
+    constraint uk_employees_email unique (email)
+);
+create index if not exists idx_employees_name on employees (first_name, last_name);
+create sequence if not exists employees_seq start with 1 increment by 50;
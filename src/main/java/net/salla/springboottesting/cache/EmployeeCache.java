@@ -0,0 +1,146 @@
+package net.salla.springboottesting.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import com.github.benmanes.caffeine.cache.stats.StatsCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import net.salla.springboottesting.model.Employee;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// read-through cache for employees by id, size bounded with W-TinyLFU eviction (caffeine).
+// misses are cached too (as Optional.empty()) but with a much shorter ttl, so probing
+// unknown ids does not reach the database while new employees still show up quickly.
+// entries are copies, callers may modify what they get back without touching the cache.
+// hit/miss/eviction statistics are published as cache.* meters with cache=employees.
+@Component
+public class EmployeeCache {
+
+    public static final String NAME = "employees";
+
+    private final Cache<Long, Optional<Employee>> cache;
+
+    // kept so getIfPresent can count its hits, its misses are counted by the get that follows
+    private final StatsCounter statsCounter = new ConcurrentStatsCounter();
+
+    // bumped before every eviction, a load that saw it change does not keep its result
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public EmployeeCache(@Value("${employee.cache.maximum-size:10000}") long maximumSize,
+                         @Value("${employee.cache.ttl:5m}") Duration ttl,
+                         @Value("${employee.cache.negative-ttl:5s}") Duration negativeTtl,
+                         MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<Long, Optional<Employee>>() {
+                    @Override
+                    public long expireAfterCreate(Long id, Optional<Employee> employee, long currentTime) {
+                        return (employee.isPresent() ? ttl : negativeTtl).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long id, Optional<Employee> employee, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(id, employee, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long id, Optional<Employee> employee, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats(() -> statsCounter)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NAME);
+    }
+
+    // the loader runs outside the cache's own compute, which would hold a map lock for the whole query
+    // (and pin the carrier of a virtual thread). concurrent loads of one id are left to the caller
+    // (see SingleFlight), an eviction while loading wins over the loaded value
+    public Optional<Employee> get(Long id, Function<Long, Optional<Employee>> loader) {
+        Optional<Employee> cached = cache.getIfPresent(id);
+        if (cached != null) {
+            return cached.map(EmployeeCache::copy);
+        }
+        long generation = invalidations.get();
+        Optional<Employee> loaded = loader.apply(id).map(EmployeeCache::copy);
+        cache.asMap().putIfAbsent(id, loaded);
+        if (invalidations.get() != generation) {
+            cache.asMap().remove(id, loaded);
+        }
+        return loaded.map(EmployeeCache::copy);
+    }
+
+    // null when nothing is cached for the id, Optional.empty() when it is cached as missing
+    public Optional<Employee> getIfPresent(Long id) {
+        Optional<Employee> employee = cache.policy().getIfPresentQuietly(id);
+        if (employee == null) {
+            return null;
+        }
+        statsCounter.recordHits(1);
+        return employee.map(EmployeeCache::copy);
+    }
+
+    // ids missing from the cache are loaded with one call to the loader, in ascending order, ids it
+    // does not return are cached as missing. the result follows the order of ids and skips unknown ones
+    public List<Employee> getAll(Collection<Long> ids, Function<List<Long>, List<Employee>> loader) {
+        Map<Long, Optional<Employee>> employees = cache.getAll(ids, missingIds -> {
+            Map<Long, Optional<Employee>> loaded = new HashMap<>();
+            missingIds.forEach(id -> loaded.put(id, Optional.empty()));
+            for (Employee employee : loader.apply(missingIds.stream().map(Long.class::cast).sorted().toList())) {
+                loaded.put(employee.getId(), Optional.of(copy(employee)));
+            }
+            return loaded;
+        });
+        return employees.values().stream()
+                .flatMap(Optional::stream)
+                .map(EmployeeCache::copy)
+                .toList();
+    }
+
+    public void put(Employee employee) {
+        cache.put(employee.getId(), Optional.of(copy(employee)));
+    }
+
+    public void clear() {
+        invalidations.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    // inside a transaction the entries are dropped once it commits, otherwise a reader could
+    // load the old row again between the eviction and the commit
+    public void evictAfterCommit(Collection<Long> ids) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidations.incrementAndGet();
+            cache.invalidateAll(ids);
+            return;
+        }
+        List<Long> evicted = List.copyOf(ids);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidations.incrementAndGet();
+                cache.invalidateAll(evicted);
+            }
+        });
+    }
+
+    private static Employee copy(Employee employee) {
+        return employee.toBuilder().build();
+    }
+}
@@ -0,0 +1,190 @@
+package net.salla.springboottesting.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import net.salla.springboottesting.repository.EmployeeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+// bloom filter of every email in the employees table, used to skip the database lookup for emails
+// that are certainly new. it is built from a streamed scan once the application is ready and answers
+// "might exist" for everything until then. new emails are added after their transaction commits,
+// deleted ones can not be removed from a bloom filter so the filter is rebuilt in the background
+// once deletions or insertions since the last build pass a share of its capacity.
+@Component
+public class EmployeeEmailFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeEmailFilter.class);
+
+    private final EmployeeRepository employeeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final long maxBits;
+    private final double rebuildThreshold;
+
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "employee-email-filter-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+
+    // puts read building before filter, so an email added while a rebuild swaps the filters
+    // always ends up in the new one
+    private volatile BloomFilter filter;
+    private volatile BloomFilter building;
+    private volatile long capacity;
+    private volatile long headroom;
+    private final AtomicLong insertionsSinceBuild = new AtomicLong();
+    private final AtomicLong deletionsSinceBuild = new AtomicLong();
+
+    private final Counter absentChecks;
+    private final Counter maybeChecks;
+    private final Counter falsePositives;
+    private final Counter rebuilds;
+
+    public EmployeeEmailFilter(EmployeeRepository employeeRepository,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${employee.email-filter.expected-insertions:1000000}") long expectedInsertions,
+                               @Value("${employee.email-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                               @Value("${employee.email-filter.max-bits:134217728}") long maxBits,
+                               @Value("${employee.email-filter.rebuild-threshold:0.2}") double rebuildThreshold) {
+        this.employeeRepository = employeeRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.maxBits = maxBits;
+        this.rebuildThreshold = rebuildThreshold;
+
+        this.absentChecks = Counter.builder("employee.email.filter.checks").tag("result", "absent").register(meterRegistry);
+        this.maybeChecks = Counter.builder("employee.email.filter.checks").tag("result", "maybe").register(meterRegistry);
+        this.falsePositives = Counter.builder("employee.email.filter.false.positives").register(meterRegistry);
+        this.rebuilds = Counter.builder("employee.email.filter.rebuilds").register(meterRegistry);
+        Gauge.builder("employee.email.filter.bits", this, f -> f.filter == null ? 0 : f.filter.bitSize())
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        scheduleRebuild();
+    }
+
+    public boolean mightContain(String email) {
+        BloomFilter current = filter;
+        if (current != null && !current.mightContain(email)) {
+            absentChecks.increment();
+            return false;
+        }
+        maybeChecks.increment();
+        return true;
+    }
+
+    // the filter said "might exist" but the database did not have the email
+    public void recordFalsePositives(int count) {
+        if (count > 0 && filter != null) {
+            falsePositives.increment(count);
+        }
+    }
+
+    public void put(String email) {
+        if (email == null) {
+            return;
+        }
+        BloomFilter next = building;
+        if (next != null) {
+            next.put(email);
+        }
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(email);
+        }
+        // past the capacity it was sized for the false positive rate climbs quickly
+        if (insertionsSinceBuild.incrementAndGet() > headroom && current != null) {
+            scheduleRebuild();
+        }
+    }
+
+    // adding before the commit could miss a rebuild that scans in between, so wait for it
+    public void putAfterCommit(Collection<String> emails) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            emails.forEach(this::put);
+            return;
+        }
+        List<String> added = List.copyOf(emails);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                added.forEach(EmployeeEmailFilter.this::put);
+            }
+        });
+    }
+
+    public void recordDeletions(long count) {
+        if (deletionsSinceBuild.addAndGet(count) > capacity * rebuildThreshold && filter != null) {
+            scheduleRebuild();
+        }
+    }
+
+    public void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            rebuildExecutor.execute(() -> {
+                rebuildScheduled.set(false);
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    logger.warn("Rebuilding the employee email filter failed, emails are checked in the database", e);
+                }
+            });
+        }
+    }
+
+    public void rebuild() {
+        long count = employeeRepository.count();
+        long nextCapacity = Math.max(expectedInsertions, count * 2);
+        BloomFilter next = new BloomFilter(nextCapacity, falsePositiveRate, maxBits);
+        building = next;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<String> emails = employeeRepository.streamAllEmails()) {
+                    emails.forEach(next::put);
+                }
+            });
+            insertionsSinceBuild.set(0);
+            deletionsSinceBuild.set(0);
+            capacity = nextCapacity;
+            headroom = nextCapacity - count;
+            filter = next;
+        } finally {
+            building = null;
+        }
+        rebuilds.increment();
+        logger.info("Employee email filter rebuilt with {} bits and {} hash functions",
+                next.bitSize(), next.hashFunctions());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+}
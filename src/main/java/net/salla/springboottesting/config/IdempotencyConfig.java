@@ -0,0 +1,25 @@
+package net.salla.springboottesting.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.salla.springboottesting.controller.IdempotencyFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+// retries of a POST or PUT with the same Idempotency-Key are answered from memory, per instance. behind
+// a load balancer the retry has to reach the same instance (or the store has to move to redis)
+@Configuration
+public class IdempotencyConfig {
+
+    @Bean
+    public IdempotencyFilter idempotencyFilter(@Value("${employee.idempotency.ttl:24h}") Duration ttl,
+                                               @Value("${employee.idempotency.max-stored-size:64MB}") DataSize maxStoredSize,
+                                               @Value("${employee.idempotency.max-body-size:1MB}") DataSize maxBodySize,
+                                               @Value("${employee.idempotency.wait-timeout:10s}") Duration waitTimeout,
+                                               MeterRegistry meterRegistry) {
+        return new IdempotencyFilter(ttl, maxStoredSize.toBytes(), maxBodySize.toBytes(), waitTimeout, meterRegistry);
+    }
+}
@@ -0,0 +1,76 @@
+package net.salla.springboottesting.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.salla.springboottesting.jdbc.ReadWriteRoutingDataSource;
+import net.salla.springboottesting.jdbc.ReadYourWritesFilter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// read/write splitting, only when employee.datasource.replica-urls is set. the primary pool is built from
+// spring.datasource.* as spring boot would, each replica gets a pool of its own with the same
+// spring.datasource.hikari.* settings, except for a short connection timeout: a replica is only ejected
+// once getting a connection failed, which should not hold the read for hikari's default 30s. the pools are not beans, so only the routing data source is timed
+// by StatementTimingProxy and the pools are closed with it
+@Configuration
+@ConditionalOnProperty("employee.datasource.replica-urls")
+public class ReadReplicaConfig {
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, Environment environment,
+                                 ObjectProvider<MeterRegistry> meterRegistry,
+                                 @Value("${employee.datasource.replica-urls}") List<String> replicaUrls,
+                                 @Value("${employee.datasource.replica-username:${spring.datasource.username:}}") String replicaUsername,
+                                 @Value("${employee.datasource.replica-password:${spring.datasource.password:}}") String replicaPassword,
+                                 @Value("${employee.datasource.replica-ejection:30s}") Duration ejection,
+                                 @Value("${employee.datasource.replica-connection-timeout:1s}") Duration replicaConnectionTimeout) {
+        HikariDataSource primary = pool(properties.initializeDataSourceBuilder(), "primary", environment, meterRegistry);
+        List<DataSource> replicas = new ArrayList<>();
+        for (String replicaUrl : replicaUrls) {
+            HikariDataSource replica = pool(DataSourceBuilder.create(getClass().getClassLoader())
+                    .url(replicaUrl.trim())
+                    .username(replicaUsername)
+                    .password(replicaPassword), "replica-" + replicas.size(), environment, meterRegistry);
+            replica.setReadOnly(true);
+            replica.setConnectionTimeout(replicaConnectionTimeout.toMillis());
+            replicas.add(replica);
+        }
+        ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(primary, replicas, ejection);
+        meterRegistry.ifAvailable(registry -> Gauge.builder("employee.datasource.replicas.available", dataSource,
+                        ReadWriteRoutingDataSource::availableReplicas)
+                .register(registry));
+        return dataSource;
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(
+            @Value("${employee.datasource.read-your-writes-window:5s}") Duration window) {
+        return new ReadYourWritesFilter(window, Clock.systemUTC());
+    }
+
+    // pool names tell the hikaricp.connections.* meters apart
+    private static HikariDataSource pool(DataSourceBuilder<?> builder, String name, Environment environment,
+                                         ObjectProvider<MeterRegistry> meterRegistry) {
+        HikariDataSource pool = builder.type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        meterRegistry.ifAvailable(registry -> pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+        return pool;
+    }
+}
@@ -0,0 +1,47 @@
+package net.salla.springboottesting.config;
+
+import net.salla.springboottesting.jdbc.SqlStatistics;
+import net.salla.springboottesting.jdbc.SqlStatisticsEndpoint;
+import net.salla.springboottesting.jdbc.StatementTimingProxy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// times every statement on the application's data source instead of printing it (spring.jpa.show-sql)
+@Configuration
+public class SqlStatisticsConfig {
+
+    @Bean
+    public SqlStatistics sqlStatistics(@Value("${employee.sql.max-shapes:1000}") int maxShapes) {
+        return new SqlStatistics(maxShapes);
+    }
+
+    @Bean
+    public SqlStatisticsEndpoint sqlStatisticsEndpoint(SqlStatistics sqlStatistics) {
+        return new SqlStatisticsEndpoint(sqlStatistics);
+    }
+
+    // static and lazy about its dependencies, so the post processor does not pull beans in early.
+    // the threshold is read from the environment, placeholders may not be resolvable this early
+    @Bean
+    public static BeanPostProcessor statementTimingPostProcessor(ObjectProvider<SqlStatistics> sqlStatistics,
+                                                                 Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource) {
+                    Duration slowQueryThreshold = environment.getProperty("employee.sql.slow-query-threshold",
+                            Duration.class, Duration.ofMillis(100));
+                    return StatementTimingProxy.wrap(dataSource, sqlStatistics.getObject(), slowQueryThreshold);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -1,63 +1,223 @@
 package net.salla.springboottesting.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletResponse;
+import net.salla.springboottesting.dto.EmployeeImportResult;
+import net.salla.springboottesting.dto.EmployeeIngestionStatus;
+import net.salla.springboottesting.dto.EmployeePage;
+import net.salla.springboottesting.dto.EmployeeView;
 import net.salla.springboottesting.model.Employee;
+import net.salla.springboottesting.service.EmployeeImportService;
+import net.salla.springboottesting.service.EmployeeIngestionService;
 import net.salla.springboottesting.service.EmployeeService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.Arrays;
 import java.util.List;
 
 @RestController
 @RequestMapping("api/employees")
 public class EmployeeController {
 
+    private static final String RESPOND_ASYNC = "respond-async";
 
     private EmployeeService employeeService;
 
-    public EmployeeController(EmployeeService employeeService) {
+    private EmployeeImportService employeeImportService;
+
+    private EmployeeIngestionService employeeIngestionService;
+
+    private ObjectMapper objectMapper;
+
+    public EmployeeController(EmployeeService employeeService, EmployeeImportService employeeImportService,
+                              EmployeeIngestionService employeeIngestionService, ObjectMapper objectMapper) {
         this.employeeService = employeeService;
+        this.employeeImportService = employeeImportService;
+        this.employeeIngestionService = employeeIngestionService;
+        this.objectMapper = objectMapper;
     }
 
 
+    // a Prefer header with respond-async among its preferences ("respond-async, wait=5") takes the
+    // write-behind path of createEmployeeAsync
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    public Employee createEmployee(@RequestBody Employee employee) {
-        return employeeService.saveEmployee(employee);
+    public ResponseEntity<?> createEmployee(@RequestBody Employee employee,
+                                            @RequestHeader(name = "Prefer", required = false) List<String> preferences) {
+        if (prefers(preferences, RESPOND_ASYNC)) {
+            return createEmployeeAsync(employee);
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(employeeService.saveEmployee(employee));
     }
 
-    @GetMapping
+    // write-behind create for high rates: with Prefer: respond-async the employee is only queued and written
+    // later together with others, the answer is 202 with a tracking id to poll, or 429 when the queue is full
+    private ResponseEntity<EmployeeIngestionStatus> createEmployeeAsync(Employee employee) {
+        if (isBlank(employee.getFirstName()) || isBlank(employee.getLastName())) {
+            return ResponseEntity.badRequest().build();
+        }
+        EmployeeIngestionStatus status = employeeIngestionService.enqueue(employee);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/employees/ingestion/" + status.trackingId()))
+                .header("Preference-Applied", RESPOND_ASYNC)
+                .body(status);
+    }
+
+    @GetMapping("ingestion/{trackingId}")
+    public ResponseEntity<EmployeeIngestionStatus> getIngestionStatus(@PathVariable("trackingId") String trackingId) {
+        return employeeIngestionService.getStatus(trackingId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("batch")
+    public ResponseEntity<List<Employee>> createEmployees(@RequestBody List<Employee> employees) {
+        if (employees.size() > EmployeeService.MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return new ResponseEntity<>(employeeService.saveEmployees(employees), HttpStatus.CREATED);
+    }
+
+    // large uploads: the body is read as a stream and committed in chunks, never buffered as a whole
+    @PostMapping(value = "import", consumes = MediaType.APPLICATION_JSON_VALUE)
     @ResponseStatus(HttpStatus.OK)
-    public List<Employee> getAllEmployee() {
-        return employeeService.getAllEmployees();
+    public EmployeeImportResult importEmployeesJson(InputStream inputStream) throws IOException {
+        return employeeImportService.importJson(inputStream);
+    }
+
+    @PostMapping(value = "import", consumes = "text/csv")
+    @ResponseStatus(HttpStatus.OK)
+    public EmployeeImportResult importEmployeesCsv(InputStream inputStream) throws IOException {
+        return employeeImportService.importCsv(inputStream);
+    }
+
+    // every read carries an etag, a client sending it back in If-None-Match gets 304 without a body
+    @GetMapping
+    public ResponseEntity<List<EmployeeView>> getAllEmployee() {
+        List<EmployeeView> employees = employeeService.getAllEmployees();
+        return ResponseEntity.ok().eTag(EmployeeETags.ofViews(employees)).body(employees);
+    }
+
+    // cursor based paging: /api/employees?limit=N for the first page, then ?after=<nextCursor>&limit=N
+    @GetMapping(params = "limit")
+    public ResponseEntity<EmployeePage> getEmployeePage(@RequestParam(name = "after", defaultValue = "0") long after,
+                                                        @RequestParam(name = "limit") int limit) {
+        EmployeePage page = employeeService.getEmployeesAfter(after, limit);
+        return ResponseEntity.ok().eTag(EmployeeETags.of(page, after, limit)).body(page);
+    }
+
+    // /api/employees?ids=1,2,3 answers with the employees that exist, in the order asked for
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<Employee>> getEmployeesByIds(@RequestParam("ids") List<Long> employeeIds) {
+        if (employeeIds.size() > EmployeeService.MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<Employee> employees = employeeService.getEmployeesByIds(employeeIds);
+        return ResponseEntity.ok().eTag(EmployeeETags.of(employees)).body(employees);
+    }
+
+    @GetMapping(params = "email")
+    public ResponseEntity<EmployeeView> getEmployeeByEmail(@RequestParam("email") String email) {
+        return employeeService.getEmployeeByEmail(email)
+                .map(employee -> ResponseEntity.ok().eTag(EmployeeETags.of(employee)).body(employee))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    // type-ahead: /api/employees/search?q=sal&limit=10, answered from memory without a query
+    @GetMapping("search")
+    public ResponseEntity<List<EmployeeView>> searchEmployees(@RequestParam("q") String query,
+                                                              @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        return ResponseEntity.ok(employeeService.searchEmployees(query, limit));
+    }
+
+    // full dump as newline delimited json, every row is written to the response as soon as it is read
+    @GetMapping(value = "export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportEmployees(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        ObjectWriter writer = objectMapper.writerFor(EmployeeView.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.setRootValueSeparator(null);
+            employeeService.exportEmployees(employee -> {
+                try {
+                    writer.writeValue(generator, employee);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
     }
 
     @GetMapping("{id}")
     public ResponseEntity<Employee> getEmployeeById(@PathVariable(name = "id") Long employeeId) {
         return employeeService.getEmployeeById(employeeId)  //  if the employee is found then return the status code ok or else return not found
-                .map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+                .map(employee -> ResponseEntity.ok().eTag(EmployeeETags.of(employee)).body(employee))
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    // one conditional update, If-Match carries the version from the etag of a previous read
     @PutMapping("{id}")
-    public ResponseEntity updateEmployee(@PathVariable("id") long employeeId,
-                                         @RequestBody Employee employee) {
-        return employeeService.getEmployeeById(employeeId)
-                .map(savedEmployee -> {
-                    savedEmployee.setFirstName(employee.getFirstName());
-                    savedEmployee.setLastName(employee.getLastName());
-                    savedEmployee.setEmail(employee.getEmail());
-                    Employee updatedEmployee = employeeService.updateEmployee(savedEmployee);
-                    return new ResponseEntity(updatedEmployee, HttpStatus.OK);
-                })
+    public ResponseEntity<Employee> updateEmployee(@PathVariable("id") long employeeId,
+                                                   @RequestBody Employee employee,
+                                                   @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return employeeService.replaceEmployee(employeeId, employee, EmployeeETags.version(ifMatch))
+                .map(updatedEmployee -> ResponseEntity.ok().eTag(EmployeeETags.of(updatedEmployee)).body(updatedEmployee))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    // updates only the fields present in the body, answers 409 when If-Match does not match the stored version
+    @PatchMapping("{id}")
+    public ResponseEntity<Void> patchEmployee(@PathVariable("id") long employeeId,
+                                              @RequestBody Employee changes,
+                                              @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = EmployeeETags.version(ifMatch);
+        employeeService.patchEmployee(employeeId, changes, expectedVersion);
+        if (expectedVersion == null) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.noContent().eTag("\"" + (expectedVersion + 1) + "\"").build();
+    }
+
+    // a missing employee makes the service throw ResourceNotFoundException, which answers 404
     @DeleteMapping("{id}")
     public ResponseEntity<String> deleteEmployee(@PathVariable("id") long employeeId){
         employeeService.deleteEmployee(employeeId);
         return new ResponseEntity<String>("Employee deleted successfully!" ,HttpStatus.OK);
     }
 
+    @DeleteMapping(params = "ids")
+    public ResponseEntity<String> deleteEmployees(@RequestParam("ids") List<Long> employeeIds){
+        if (employeeIds.size() > EmployeeService.MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        int deleted = employeeService.deleteEmployees(employeeIds);
+        return new ResponseEntity<String>(deleted + " employees deleted successfully!" ,HttpStatus.OK);
+    }
+
+    // every Prefer header is a comma separated list of preferences, each may have a value and
+    // parameters ("wait=5", "handling=lenient; x=1"), names are case insensitive
+    private static boolean prefers(List<String> preferences, String name) {
+        return preferences != null && preferences.stream()
+                .flatMap(header -> Arrays.stream(header.split(",")))
+                .map(preference -> preference.split("[=;]", 2)[0].trim())
+                .anyMatch(name::equalsIgnoreCase);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
   /*  @GetMapping
     @ResponseStatus(HttpStatus.OK)
     public ResponseEntity<List<Employee>> getAllEmployee() {
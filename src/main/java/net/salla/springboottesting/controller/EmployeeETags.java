@@ -0,0 +1,93 @@
+package net.salla.springboottesting.controller;
+
+import net.salla.springboottesting.dto.EmployeePage;
+import net.salla.springboottesting.dto.EmployeeView;
+import net.salla.springboottesting.model.Employee;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.function.ToLongFunction;
+
+// strong etags derived from the version column, so a response can be answered with 304 Not Modified
+// before anything is serialized (spring compares the etag with If-None-Match when a ResponseEntity is returned).
+// the etag of a single employee is its version, which is also what If-Match on PUT and PATCH is read back as.
+final class EmployeeETags {
+
+    private EmployeeETags() {
+    }
+
+    static String of(Employee employee) {
+        return "\"" + employee.getVersion() + "\"";
+    }
+
+    // read by email, where the same email can belong to a deleted row and a new one both at version 0,
+    // so the id is part of the tag. it is not an If-Match tag, writes address the employee by id
+    static String of(EmployeeView employee) {
+        return "\"" + employee.id() + "-" + employee.version() + "\"";
+    }
+
+    // lists change when a row is added, removed or updated, so the tag covers every (id, version) pair
+    static String of(Collection<Employee> employees) {
+        return of(employees, Employee::getId, Employee::getVersion);
+    }
+
+    // same tag as for the entities, a list read as projections matches one read as entities
+    static String ofViews(Collection<EmployeeView> employees) {
+        return of(employees, EmployeeView::id, EmployeeView::version);
+    }
+
+    // a full last page keeps its rows when rows are added after it but gets a next cursor, so the cursor
+    // and the request (after, limit) are hashed along with the rows. no cursor is -1, ids are positive
+    static String of(EmployeePage page, long after, int limit) {
+        MessageDigest digest = sha256();
+        digest.update(ByteBuffer.allocate(3 * Long.BYTES)
+                .putLong(after)
+                .putLong(limit)
+                .putLong(page.getNextCursor() != null ? page.getNextCursor() : -1L)
+                .array());
+        return of(digest, page.getContent(), EmployeeView::id, EmployeeView::version);
+    }
+
+    private static <T> String of(Collection<T> employees, ToLongFunction<T> id, ToLongFunction<T> version) {
+        return of(sha256(), employees, id, version);
+    }
+
+    private static <T> String of(MessageDigest digest, Collection<T> employees, ToLongFunction<T> id,
+                                 ToLongFunction<T> version) {
+        ByteBuffer buffer = ByteBuffer.allocate(2 * Long.BYTES);
+        for (T employee : employees) {
+            buffer.clear();
+            buffer.putLong(id.applyAsLong(employee)).putLong(version.applyAsLong(employee));
+            digest.update(buffer.array());
+        }
+        return "\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+    }
+
+    // version expected by an If-Match header, null when there is no precondition (absent or *),
+    // -1 for a tag that is not one of ours and so can never match
+    static Long version(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException e) {
+                return -1L;
+            }
+        }
+        return -1L;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
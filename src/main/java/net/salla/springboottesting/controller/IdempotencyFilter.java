@@ -0,0 +1,326 @@
+package net.salla.springboottesting.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// a POST or PUT carrying an Idempotency-Key runs once, a retry with the same key (and the same method
+// and path) gets the stored response back with Idempotent-Replayed: true and never reaches the
+// controller. a retry arriving while the first request still runs waits for it, up to the wait
+// timeout (409 after that). 5xx and 429 answers are not stored, the retry runs again. the body is part
+// of the key's fingerprint, the same key with another body answers 422. stored responses are bounded
+// by their size in bytes and expire after the ttl, so this protects against retries, not against
+// replays days later. counted as employee.idempotency.requests{result=executed|replayed|conflict}.
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final Cache<String, StoredResponse> responses;
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+    private final long maxBodySize;
+    private final long waitTimeoutNanos;
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter conflicts;
+
+    public IdempotencyFilter(Duration ttl, long maxStoredBytes, long maxBodySize, Duration waitTimeout,
+                             MeterRegistry meterRegistry) {
+        this.responses = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumWeight(maxStoredBytes)
+                .weigher((String key, StoredResponse response) -> key.length() + response.weight())
+                .build();
+        this.maxBodySize = maxBodySize;
+        this.waitTimeoutNanos = waitTimeout.toNanos();
+        this.executed = counter(meterRegistry, "executed");
+        this.replayed = counter(meterRegistry, "replayed");
+        this.conflicts = counter(meterRegistry, "conflict");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getHeader(HEADER) == null
+                || !(request.getMethod().equals("POST") || request.getMethod().equals("PUT"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(HEADER);
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), HEADER + " must have 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        byte[] body = readBody(request);
+        if (body == null) {
+            response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value(),
+                    "Requests with an " + HEADER + " are limited to " + maxBodySize + " bytes");
+            return;
+        }
+        String query = request.getQueryString();
+        String key = request.getMethod() + ' ' + request.getRequestURI() + (query != null ? "?" + query : "") + ' ' + idempotencyKey;
+        byte[] fingerprint = sha256(body);
+
+        while (true) {
+            StoredResponse stored = responses.getIfPresent(key);
+            if (stored != null) {
+                replay(stored, fingerprint, response);
+                return;
+            }
+            CompletableFuture<StoredResponse> call = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(key, call);
+            if (running == null) {
+                execute(key, fingerprint, new CachedBodyRequest(request, body), response, chain, call);
+                return;
+            }
+            try {
+                stored = running.get(waitTimeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                conflicts.increment();
+                response.sendError(HttpStatus.CONFLICT.value(), "A request with this " + HEADER + " is still in progress");
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException("Interrupted waiting for a request with the same " + HEADER, e);
+            } catch (ExecutionException e) {
+                // not completed exceptionally, a failed first request completes with null
+                throw new ServletException(e.getCause());
+            }
+            if (stored != null) {
+                replay(stored, fingerprint, response);
+                return;
+            }
+            // the first request failed or its answer was not stored (5xx, 429), try again (most likely
+            // running it ourselves)
+        }
+    }
+
+    private void execute(String key, byte[] fingerprint, HttpServletRequest request, HttpServletResponse response,
+                         FilterChain chain, CompletableFuture<StoredResponse> call) throws ServletException, IOException {
+        // the first request may have finished between the lookup and claiming the key
+        StoredResponse stored = responses.getIfPresent(key);
+        if (stored != null) {
+            inFlight.remove(key, call);
+            call.complete(stored);
+            replay(stored, fingerprint, response);
+            return;
+        }
+        executed.increment();
+        CapturingResponse caching = new CapturingResponse(response);
+        try {
+            chain.doFilter(request, caching);
+        } catch (ServletException | IOException | RuntimeException | Error e) {
+            inFlight.remove(key, call);
+            call.complete(null);
+            throw e;
+        }
+        stored = isStored(caching.getStatus()) ? StoredResponse.of(fingerprint, caching) : null;
+        if (stored != null) {
+            responses.put(key, stored);
+        }
+        inFlight.remove(key, call);
+        call.complete(stored);
+        caching.copyBodyToResponse();
+    }
+
+    private void replay(StoredResponse stored, byte[] fingerprint, HttpServletResponse response) throws IOException {
+        if (!MessageDigest.isEqual(stored.fingerprint(), fingerprint)) {
+            conflicts.increment();
+            response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                    HEADER + " was already used for a request with another body");
+            return;
+        }
+        replayed.increment();
+        stored.headers().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.error()) {
+            // rendered by the error page again, like the first time
+            response.sendError(stored.status(), stored.errorMessage());
+            return;
+        }
+        response.setStatus(stored.status());
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private static boolean isStored(int status) {
+        return status < 500 && status != HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+
+    // null when the body is larger than maxBodySize
+    private byte[] readBody(HttpServletRequest request) throws IOException {
+        if (request.getContentLengthLong() > maxBodySize) {
+            return null;
+        }
+        InputStream input = request.getInputStream();
+        byte[] body = input.readNBytes((int) Math.min(maxBodySize, Integer.MAX_VALUE - 8));
+        if (input.read() != -1) {
+            return null;
+        }
+        return body;
+    }
+
+    private static byte[] sha256(byte[] body) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(body);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("employee.idempotency.requests")
+                .description("Requests carrying an Idempotency-Key")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record StoredResponse(byte[] fingerprint, int status, Map<String, List<String>> headers, byte[] body,
+                                  boolean error, String errorMessage) {
+
+        static StoredResponse of(byte[] fingerprint, CapturingResponse response) {
+            Map<String, List<String>> headers = new LinkedHashMap<>();
+            for (String name : response.getHeaderNames()) {
+                headers.put(name, new ArrayList<>(response.getHeaders(name)));
+            }
+            // set on the wrapper itself, not as a header
+            if (response.getContentType() != null) {
+                headers.put("Content-Type", List.of(response.getContentType()));
+            }
+            return new StoredResponse(fingerprint, response.getStatus(), headers, response.getContentAsByteArray(),
+                    response.error, response.errorMessage);
+        }
+
+        int weight() {
+            int weight = fingerprint.length + body.length + (errorMessage != null ? errorMessage.length() : 0);
+            for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                weight += header.getKey().length() + header.getValue().stream().mapToInt(String::length).sum();
+            }
+            return weight;
+        }
+    }
+
+    // @ResponseStatus exceptions end in sendError, the error body is only rendered once the filters returned
+    private static final class CapturingResponse extends ContentCachingResponseWrapper {
+
+        private boolean error;
+        private String errorMessage;
+
+        CapturingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public void sendError(int status) throws IOException {
+            error = true;
+            super.sendError(status);
+        }
+
+        @Override
+        public void sendError(int status, String message) throws IOException {
+            error = true;
+            errorMessage = message;
+            super.sendError(status, message);
+        }
+    }
+
+    // the body was read for the fingerprint, the controller reads this copy
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // the body is in memory already, everything is available and read at once
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        readListener.onDataAvailable();
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package net.salla.springboottesting.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// summary of an import, only the first MAX_REPORTED_ERRORS row errors are kept so a bad file can not fill the heap
+@Getter
+public class EmployeeImportResult {
+
+    public static final int MAX_REPORTED_ERRORS = 100;
+
+    private long processed;
+    private long imported;
+    private long failed;
+    private List<RowError> errors = new ArrayList<>();
+
+    public void addProcessed() {
+        processed++;
+    }
+
+    public void addImported(long count) {
+        imported += count;
+    }
+
+    public void addError(long row, String message) {
+        failed++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new RowError(row, message));
+        }
+    }
+
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Getter
+    public static class RowError {
+
+        private long row;
+        private String message;
+
+    }
+}
@@ -0,0 +1,26 @@
+package net.salla.springboottesting.dto;
+
+// what happened to an employee posted with Prefer: respond-async: QUEUED until its batch is written,
+// then CREATED with the new id, REJECTED when the email is taken or FAILED when it could not be written
+public record EmployeeIngestionStatus(String trackingId, State state, Long employeeId, String message) {
+
+    public enum State {
+        QUEUED, CREATED, REJECTED, FAILED
+    }
+
+    public static EmployeeIngestionStatus queued(String trackingId) {
+        return new EmployeeIngestionStatus(trackingId, State.QUEUED, null, null);
+    }
+
+    public static EmployeeIngestionStatus created(String trackingId, long employeeId) {
+        return new EmployeeIngestionStatus(trackingId, State.CREATED, employeeId, null);
+    }
+
+    public static EmployeeIngestionStatus rejected(String trackingId, String message) {
+        return new EmployeeIngestionStatus(trackingId, State.REJECTED, null, message);
+    }
+
+    public static EmployeeIngestionStatus failed(String trackingId, String message) {
+        return new EmployeeIngestionStatus(trackingId, State.FAILED, null, message);
+    }
+}
@@ -0,0 +1,19 @@
+package net.salla.springboottesting.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// one slice of the employees table for keyset (cursor) pagination,
+// nextCursor is the id to pass as ?after= for the next page or null when this is the last page
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+public class EmployeePage {
+
+    private List<EmployeeView> content;
+    private Long nextCursor;
+
+}
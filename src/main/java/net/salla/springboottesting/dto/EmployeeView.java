@@ -0,0 +1,14 @@
+package net.salla.springboottesting.dto;
+
+import net.salla.springboottesting.model.Employee;
+
+// read-only copy of an employee row, built by the queries themselves (select new ...) so no entity,
+// persistence context entry or dirty checking snapshot is created for it.
+// it serializes to the same json as Employee
+public record EmployeeView(long id, String firstName, String lastName, String email, long version) {
+
+    public static EmployeeView of(Employee employee) {
+        return new EmployeeView(employee.getId(), employee.getFirstName(), employee.getLastName(),
+                employee.getEmail(), employee.getVersion());
+    }
+}
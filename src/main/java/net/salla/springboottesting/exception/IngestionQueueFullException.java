@@ -0,0 +1,11 @@
+package net.salla.springboottesting.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class IngestionQueueFullException extends RuntimeException{
+    public IngestionQueueFullException(String message){
+        super(message);
+    }
+}
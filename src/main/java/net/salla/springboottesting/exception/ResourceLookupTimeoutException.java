@@ -0,0 +1,15 @@
+package net.salla.springboottesting.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ResourceLookupTimeoutException extends RuntimeException{
+    public ResourceLookupTimeoutException(String message){
+        super(message);
+    }
+
+    public ResourceLookupTimeoutException(String message,Throwable cause){
+        super(message,cause);
+    }
+}
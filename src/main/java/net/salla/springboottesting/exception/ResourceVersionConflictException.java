@@ -0,0 +1,15 @@
+package net.salla.springboottesting.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ResourceVersionConflictException extends RuntimeException{
+    public ResourceVersionConflictException(String message){
+        super(message);
+    }
+
+    public ResourceVersionConflictException(String message,Throwable cause){
+        super(message,cause);
+    }
+}
@@ -0,0 +1,84 @@
+package net.salla.springboottesting.jdbc;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+// sends read-only transactions (@Transactional(readOnly = true), the reads of SimpleJpaRepository) to the
+// read replicas and everything else to the primary. the connection is only fetched when the first statement
+// runs (LazyConnectionDataSourceProxy), by then the transaction's read-only flag is known.
+// reads fall back to the primary when every replica is ejected or while ReadYourWrites pins them there.
+public class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+    private final DataSource primary;
+    private final ReplicaPool replicas;
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas, Duration ejection) {
+        this(primary, new ReplicaPool(replicas, ejection, System::nanoTime));
+    }
+
+    private ReadWriteRoutingDataSource(DataSource primary, ReplicaPool replicas) {
+        super(new Router(primary, replicas));
+        this.primary = primary;
+        this.replicas = replicas;
+    }
+
+    // replicas currently taking reads
+    public int availableReplicas() {
+        return replicas.available();
+    }
+
+    @Override
+    public void close() {
+        closeQuietly(primary);
+        replicas.dataSources().forEach(ReadWriteRoutingDataSource::closeQuietly);
+    }
+
+    private static void closeQuietly(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                // shutting down anyway
+            }
+        }
+    }
+
+    private static final class Router extends AbstractDataSource {
+
+        private final DataSource primary;
+        private final ReplicaPool replicas;
+
+        Router(DataSource primary, ReplicaPool replicas) {
+            this.primary = primary;
+            this.replicas = replicas;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                if (!ReadYourWrites.isPinnedToPrimary()) {
+                    Connection connection = replicas.getConnection();
+                    if (connection != null) {
+                        return connection;
+                    }
+                }
+            } else if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                ReadYourWrites.wrote();
+            }
+            return primary.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return primary.getConnection(username, password);
+        }
+    }
+}
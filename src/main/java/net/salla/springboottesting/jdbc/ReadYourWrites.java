@@ -0,0 +1,67 @@
+package net.salla.springboottesting.jdbc;
+
+import java.util.function.Supplier;
+
+// per request state for ReadWriteRoutingDataSource: whether reads have to go to the primary because
+// the client wrote a moment ago (the replicas may not have that write yet), and what to do on the
+// first write of the request. outside a scope (no request, other threads) reads are never pinned.
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Scope> current = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    public static Scope open(boolean pinnedToPrimary, Runnable onFirstWrite) {
+        Scope scope = new Scope(current.get(), pinnedToPrimary, onFirstWrite);
+        current.set(scope);
+        return scope;
+    }
+
+    public static boolean isPinnedToPrimary() {
+        Scope scope = current.get();
+        return scope != null && scope.pinnedToPrimary;
+    }
+
+    // runs the reads of the action on the primary, for results shared with other requests (caches,
+    // loads other callers wait on) that must not be older than a write those callers just made
+    public static <T> T onPrimary(Supplier<T> action) {
+        try (Scope scope = open(true, () -> {
+        })) {
+            return action.get();
+        }
+    }
+
+    // a read-write transaction got a primary connection, later reads of the same request stay on the primary
+    static void wrote() {
+        Scope scope = current.get();
+        if (scope != null && !scope.wrote) {
+            scope.wrote = true;
+            scope.pinnedToPrimary = true;
+            scope.onFirstWrite.run();
+        }
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final Scope previous;
+        private final Runnable onFirstWrite;
+        private boolean pinnedToPrimary;
+        private boolean wrote;
+
+        private Scope(Scope previous, boolean pinnedToPrimary, Runnable onFirstWrite) {
+            this.previous = previous;
+            this.pinnedToPrimary = pinnedToPrimary;
+            this.onFirstWrite = onFirstWrite;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                current.remove();
+            } else {
+                current.set(previous);
+            }
+        }
+    }
+}
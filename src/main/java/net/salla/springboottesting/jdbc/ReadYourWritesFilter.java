@@ -0,0 +1,68 @@
+package net.salla.springboottesting.jdbc;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+
+// remembers a client's last write in a cookie holding the end of the read-your-writes window, requests
+// carrying a cookie that has not run out read from the primary. a cookie works across instances and
+// needs no server side session, clients that drop cookies just read from the replicas.
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String COOKIE = "employee-primary-until";
+
+    private final Duration window;
+    private final Clock clock;
+
+    public ReadYourWritesFilter(Duration window, Clock clock) {
+        this.window = window;
+        this.clock = clock;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (window.isZero()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        try (ReadYourWrites.Scope scope = ReadYourWrites.open(pinnedUntil(request) > clock.millis(),
+                () -> pin(response))) {
+            chain.doFilter(request, response);
+        }
+    }
+
+    private long pinnedUntil(HttpServletRequest request) {
+        if (request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (cookie.getName().equals(COOKIE)) {
+                    try {
+                        return Long.parseLong(cookie.getValue());
+                    } catch (NumberFormatException e) {
+                        return 0;
+                    }
+                }
+            }
+        }
+        return 0;
+    }
+
+    // the write happens before the body is written, so the response is hardly ever committed yet
+    private void pin(HttpServletResponse response) {
+        if (response.isCommitted()) {
+            return;
+        }
+        Cookie cookie = new Cookie(COOKIE, String.valueOf(clock.millis() + window.toMillis()));
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setMaxAge((int) Math.max(1, window.plusMillis(999).toSeconds()));
+        response.addCookie(cookie);
+    }
+}
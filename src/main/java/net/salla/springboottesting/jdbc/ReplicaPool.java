@@ -0,0 +1,84 @@
+package net.salla.springboottesting.jdbc;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.stream.IntStream;
+
+// the read replicas, taken in turn (round robin). a replica that fails to hand out a connection is
+// ejected for the ejection period and the next one is tried, once the period is over the next read
+// that comes by tries it again (and ejects it again when it still fails)
+final class ReplicaPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaPool.class);
+
+    private final List<Replica> replicas;
+    private final long ejectionNanos;
+    private final LongSupplier nanoTime;
+    private final AtomicInteger next = new AtomicInteger();
+
+    ReplicaPool(List<DataSource> dataSources, Duration ejection, LongSupplier nanoTime) {
+        this.replicas = IntStream.range(0, dataSources.size())
+                .mapToObj(i -> new Replica("replica-" + i, dataSources.get(i)))
+                .toList();
+        this.ejectionNanos = ejection.toNanos();
+        this.nanoTime = nanoTime;
+    }
+
+    // null when every replica is ejected, the caller reads from the primary then
+    Connection getConnection() {
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            long now = nanoTime.getAsLong();
+            if (replica.isEjected(now)) {
+                continue;
+            }
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                replica.ejected = false;
+                return connection;
+            } catch (SQLException e) {
+                replica.ejectedUntil = now + ejectionNanos;
+                replica.ejected = true;
+                logger.warn("Read replica {} ejected for {} ms: {}", replica.name, ejectionNanos / 1_000_000,
+                        e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    int available() {
+        long now = nanoTime.getAsLong();
+        return (int) replicas.stream().filter(replica -> !replica.isEjected(now)).count();
+    }
+
+    List<DataSource> dataSources() {
+        return replicas.stream().map(replica -> replica.dataSource).toList();
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean ejected;
+        private volatile long ejectedUntil;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        // nanoTime values may only be compared by their difference
+        boolean isEjected(long now) {
+            return ejected && ejectedUntil - now > 0;
+        }
+    }
+}
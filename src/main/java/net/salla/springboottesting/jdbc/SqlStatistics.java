@@ -0,0 +1,127 @@
+package net.salla.springboottesting.jdbc;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+// per sql shape aggregates of every statement run through StatementTimingProxy: executions, total and
+// max time, and rows (update counts for writes, rows read for queries). a shape is the statement with
+// literals replaced by ? and in lists collapsed, so statements that only differ in values share one
+// entry. at most maxShapes entries are kept, statements of further shapes are added up under OTHER.
+public class SqlStatistics {
+
+    public static final String OTHER = "other";
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+
+    private final int maxShapes;
+
+    // keyed by the statement as executed, so the regular expressions only run the first time it is seen
+    private final Map<String, Aggregate> bySql = new ConcurrentHashMap<>();
+    private final Map<String, Aggregate> byShape = new ConcurrentHashMap<>();
+    private final Aggregate other = new Aggregate(OTHER);
+
+    public SqlStatistics(int maxShapes) {
+        this.maxShapes = maxShapes;
+    }
+
+    Aggregate aggregate(String sql) {
+        Aggregate aggregate = bySql.get(sql);
+        if (aggregate != null) {
+            return aggregate;
+        }
+        String shape = shape(sql);
+        aggregate = byShape.get(shape);
+        if (aggregate == null) {
+            if (byShape.size() >= maxShapes) {
+                return other;
+            }
+            aggregate = byShape.computeIfAbsent(shape, Aggregate::new);
+        }
+        if (bySql.size() < maxShapes) {
+            bySql.putIfAbsent(sql, aggregate);
+        }
+        return aggregate;
+    }
+
+    // most expensive (by total time) first
+    public List<Entry> entries() {
+        List<Entry> entries = new ArrayList<>(byShape.values().stream().map(Aggregate::entry).toList());
+        if (other.count.sum() > 0) {
+            entries.add(other.entry());
+        }
+        entries.sort(Comparator.comparingDouble(Entry::totalMillis).reversed());
+        return entries;
+    }
+
+    public void reset() {
+        bySql.clear();
+        byShape.clear();
+        other.reset();
+    }
+
+    static String shape(String sql) {
+        String shape = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        shape = STRING_LITERAL.matcher(shape).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        return IN_LIST.matcher(shape).replaceAll("in (?...)");
+    }
+
+    public record Entry(String sql, long count, double totalMillis, double meanMillis, double maxMillis, long rows) {
+    }
+
+    static final class Aggregate {
+
+        private final String shape;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder rows = new LongAdder();
+
+        private Aggregate(String shape) {
+            this.shape = shape;
+        }
+
+        void record(long nanos, long rows) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            this.rows.add(rows);
+        }
+
+        void addRow() {
+            rows.increment();
+        }
+
+        String shape() {
+            return shape;
+        }
+
+        private Entry entry() {
+            long executions = count.sum();
+            double totalMillis = millis(totalNanos.sum());
+            return new Entry(shape, executions, totalMillis, executions == 0 ? 0 : totalMillis / executions,
+                    millis(maxNanos.get()), rows.sum());
+        }
+
+        private void reset() {
+            count.reset();
+            totalNanos.reset();
+            maxNanos.reset();
+            rows.reset();
+        }
+
+        private static double millis(long nanos) {
+            return nanos / (double) Duration.ofMillis(1).toNanos();
+        }
+    }
+}
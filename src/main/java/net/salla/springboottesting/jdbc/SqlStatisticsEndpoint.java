@@ -0,0 +1,29 @@
+package net.salla.springboottesting.jdbc;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.List;
+
+// GET /actuator/sqlstats lists the statement shapes, most expensive first. DELETE starts over,
+// e.g. before a load test
+@Endpoint(id = "sqlstats")
+public class SqlStatisticsEndpoint {
+
+    private final SqlStatistics sqlStatistics;
+
+    public SqlStatisticsEndpoint(SqlStatistics sqlStatistics) {
+        this.sqlStatistics = sqlStatistics;
+    }
+
+    @ReadOperation
+    public List<SqlStatistics.Entry> statements() {
+        return sqlStatistics.entries();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        sqlStatistics.reset();
+    }
+}
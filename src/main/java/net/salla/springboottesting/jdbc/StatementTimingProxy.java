@@ -0,0 +1,210 @@
+package net.salla.springboottesting.jdbc;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.ClassUtils;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// wraps a DataSource so every statement executed through its connections is timed. the time and the
+// rows go to the statement's SqlStatistics entry, statements at or above the threshold are logged on
+// the employee.sql.slow logger, which logback-spring.xml writes through an async appender so the
+// calling thread never waits for the console. unwrap is passed on, so it still reaches the pool.
+public final class StatementTimingProxy {
+
+    private static final Logger slowQueryLogger = LoggerFactory.getLogger("employee.sql.slow");
+
+    private StatementTimingProxy() {
+    }
+
+    // the proxy keeps all interfaces of the pool (Closeable for shutdown, the hikari mx beans)
+    public static DataSource wrap(DataSource dataSource, SqlStatistics statistics, Duration slowQueryThreshold) {
+        return (DataSource) Proxy.newProxyInstance(StatementTimingProxy.class.getClassLoader(),
+                ClassUtils.getAllInterfaces(dataSource),
+                new DataSourceHandler(dataSource, statistics, slowQueryThreshold.toNanos()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, JdbcHandler handler) {
+        return (T) Proxy.newProxyInstance(StatementTimingProxy.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private abstract static class JdbcHandler implements InvocationHandler {
+
+        final Object target;
+
+        JdbcHandler(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            return switch (method.getName()) {
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                default -> handle(proxy, method, args);
+            };
+        }
+
+        abstract Object handle(Object proxy, Method method, Object[] args) throws Throwable;
+
+        Object call(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private static final class DataSourceHandler extends JdbcHandler {
+
+        private final SqlStatistics statistics;
+        private final long slowQueryThresholdNanos;
+
+        DataSourceHandler(DataSource target, SqlStatistics statistics, long slowQueryThresholdNanos) {
+            super(target);
+            this.statistics = statistics;
+            this.slowQueryThresholdNanos = slowQueryThresholdNanos;
+        }
+
+        @Override
+        Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = call(method, args);
+            if (result instanceof Connection connection) {
+                return proxy(Connection.class, new ConnectionHandler(connection, statistics, slowQueryThresholdNanos));
+            }
+            return result;
+        }
+    }
+
+    private static final class ConnectionHandler extends JdbcHandler {
+
+        private final SqlStatistics statistics;
+        private final long slowQueryThresholdNanos;
+
+        ConnectionHandler(Connection target, SqlStatistics statistics, long slowQueryThresholdNanos) {
+            super(target);
+            this.statistics = statistics;
+            this.slowQueryThresholdNanos = slowQueryThresholdNanos;
+        }
+
+        @Override
+        Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = call(method, args);
+            if (result instanceof Statement statement) {
+                // prepareStatement and prepareCall take the sql up front, createStatement gets it on execute
+                String sql = method.getName().startsWith("prepare") ? (String) args[0] : null;
+                return proxy(method.getReturnType(), new StatementHandler(statement, (Connection) proxy, sql, this));
+            }
+            return result;
+        }
+    }
+
+    private static final class StatementHandler extends JdbcHandler {
+
+        private final Connection connection;
+        private final ConnectionHandler connectionHandler;
+        private String sql;
+
+        StatementHandler(Statement target, Connection connection, String sql, ConnectionHandler connectionHandler) {
+            super(target);
+            this.connection = connection;
+            this.sql = sql;
+            this.connectionHandler = connectionHandler;
+        }
+
+        @Override
+        Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("getConnection")) {
+                return connection;
+            }
+            if (name.equals("addBatch") && args != null && args.length == 1) {
+                sql = (String) args[0];
+            }
+            if (name.equals("getResultSet") && sql != null) {
+                return rowCounting(call(method, args), connectionHandler.statistics.aggregate(sql));
+            }
+            if (!name.startsWith("execute")) {
+                return call(method, args);
+            }
+
+            String executed = args != null && args.length > 0 && args[0] instanceof String statement ? statement : sql;
+            if (executed == null) {
+                return call(method, args);
+            }
+            sql = executed;
+            SqlStatistics.Aggregate aggregate = connectionHandler.statistics.aggregate(executed);
+            long start = System.nanoTime();
+            Object result = null;
+            try {
+                result = call(method, args);
+                return rowCounting(result, aggregate);
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                aggregate.record(elapsed, updateCount(result));
+                if (elapsed >= connectionHandler.slowQueryThresholdNanos) {
+                    slowQueryLogger.warn("Slow statement took {} ms: {}", TimeUnit.NANOSECONDS.toMillis(elapsed), executed);
+                }
+            }
+        }
+
+        private Object rowCounting(Object result, SqlStatistics.Aggregate aggregate) {
+            if (result instanceof ResultSet resultSet) {
+                return proxy(ResultSet.class, new ResultSetHandler(resultSet, aggregate));
+            }
+            return result;
+        }
+
+        // update counts of executeUpdate and executeBatch, queries count their rows while they are read
+        private static long updateCount(Object result) {
+            if (result instanceof Integer count) {
+                return Math.max(count, 0);
+            }
+            if (result instanceof Long count) {
+                return Math.max(count, 0);
+            }
+            long rows = 0;
+            if (result instanceof int[] counts) {
+                for (int count : counts) {
+                    rows += Math.max(count, 0);
+                }
+            }
+            if (result instanceof long[] counts) {
+                for (long count : counts) {
+                    rows += Math.max(count, 0);
+                }
+            }
+            return rows;
+        }
+    }
+
+    private static final class ResultSetHandler extends JdbcHandler {
+
+        private final SqlStatistics.Aggregate aggregate;
+
+        ResultSetHandler(ResultSet target, SqlStatistics.Aggregate aggregate) {
+            super(target);
+            this.aggregate = aggregate;
+        }
+
+        @Override
+        Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = call(method, args);
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                aggregate.addRow();
+            }
+            return result;
+        }
+    }
+}
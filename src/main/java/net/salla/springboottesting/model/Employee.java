@@ -7,13 +7,18 @@ import lombok.*;
 @NoArgsConstructor
 @Setter
 @Getter
-@Builder  //  builder pattern to create object of employee class and set the values to the employee object
+@Builder(toBuilder = true)  //  builder pattern to create object of employee class and set the values to the employee object
 @Entity
-@Table(name = "employees")
+@Table(name = "employees",
+        uniqueConstraints = @UniqueConstraint(name = "uk_employees_email", columnNames = "email"),
+        indexes = @Index(name = "idx_employees_name", columnList = "first_name, last_name"))
 public class Employee {
 
+    // pooled sequence (a table on MySQL) hands out ids 50 at a time without a round trip per insert,
+    // unlike IDENTITY it lets hibernate put inserts into a jdbc batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employees_seq")
+    @SequenceGenerator(name = "employees_seq", sequenceName = "employees_seq", allocationSize = 50)
     private long id;
     @Column(name = "first_name", nullable = false)
     private String firstName;
@@ -21,5 +26,7 @@ public class Employee {
     private String lastName;
     @Column(nullable = true)
     private String email;
+    @Version
+    private long version;
 
 }
@@ -1,33 +1,120 @@
 package net.salla.springboottesting.repository;
 
+import jakarta.persistence.QueryHint;
+import net.salla.springboottesting.dto.EmployeeView;
 import net.salla.springboottesting.model.Employee;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 // @Repository  // it not necessary to add @Repository annotation because
  // SimpleJpaRepository class implements JpaRepository interface and
  //
 public interface EmployeeRepository  extends JpaRepository<Employee,Long>  {
+
+  // the *View queries select the columns straight into EmployeeView records, hibernate keeps no managed
+  // entity and no snapshot for them. they run read-only, which also switches the session to FlushMode.MANUAL
+  // (no dirty checking before the query) and the connection to read-only.
+  // declared queries do not inherit readOnly from SimpleJpaRepository like findById and findAll do, the reads
+  // below say so themselves, which also sends them to a read replica when there are any (ReadReplicaConfig)
+  String SELECT_VIEW = "select new net.salla.springboottesting.dto.EmployeeView(e.id, e.firstName, e.lastName, " +
+          "e.email, e.version) from Employee e ";
+
+  @Transactional(readOnly = true)
   Optional<Employee> findByEmail(String email);
 
+  @Transactional(readOnly = true)
+  @Query(SELECT_VIEW + "where e.email = :email")
+  Optional<EmployeeView> findViewByEmail(@Param("email") String email);
+
+  @Transactional(readOnly = true)
+  @Query(SELECT_VIEW + "order by e.id")
+  List<EmployeeView> findAllViews();
+
+  // one round trip to find which of the given emails are already taken
+  @Query("select e.email from Employee e where e.email in :emails")
+  List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
   // define custom query using JPQL with index params
+  @Transactional(readOnly = true)
   @Query("select e from Employee e where e.firstName=?1 and e.lastName=?2")
   Employee findByJPQL(String firstName,String lastName);
 
   // define custom query using JPQL with named params
+  @Transactional(readOnly = true)
   @Query("select e from Employee e where e.firstName=:firstName and e.lastName=:lastName")
   Employee findByJPQLNamedParams(@Param("firstName") String firstName,@Param("lastName") String lastName);
 
   // define custom query using Native SQL with index params
+  @Transactional(readOnly = true)
   @Query(value = "select * from employees e where e.first_name=?1 and e.last_name=?2", nativeQuery = true)
   Employee findByNativeSQLIndex(String firstName, String lastName);
 
   // define custom query using Native SQL with named params
+  @Transactional(readOnly = true)
   @Query(value = "select * from employees e where e.first_name=:firstName and e.last_name=:lastName", nativeQuery = true)
   Employee findByNativeSQLNamed(@Param("firstName") String firstName,@Param("lastName") String lastName);
+
+  // the name lookup as a projection, several employees can share a name so all of them are returned
+  @Transactional(readOnly = true)
+  @Query(SELECT_VIEW + "where e.firstName = :firstName and e.lastName = :lastName order by e.id")
+  List<EmployeeView> findViewsByName(@Param("firstName") String firstName, @Param("lastName") String lastName);
+
+  // keyset pagination: seeks on the primary key index (id > ?) instead of skipping rows with OFFSET,
+  // pass PageRequest.of(0, size) so only a LIMIT is applied
+  @Transactional(readOnly = true)
+  @Query(SELECT_VIEW + "where e.id > :after order by e.id")
+  List<EmployeeView> findViewPageAfter(@Param("after") long after, Pageable pageable);
+
+  // full table scan for exports, rows are pulled from the driver in chunks of the fetch size
+  // (MySQL needs useCursorFetch=true on the url) and have to be consumed inside a transaction
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  @Query(SELECT_VIEW + "order by e.id")
+  Stream<EmployeeView> streamAllViews();
+
+  @Query("select e.version from Employee e where e.id = :id")
+  Optional<Long> findVersionById(@Param("id") long id);
+
+  // single statement updates guarded by the version column, they return 0 when the row is missing
+  // or was changed since that version was read
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("update Employee e set e.firstName = :firstName, e.lastName = :lastName, e.email = :email, " +
+          "e.version = e.version + 1 where e.id = :id and e.version = :version")
+  int replace(@Param("id") long id, @Param("version") long version, @Param("firstName") String firstName,
+              @Param("lastName") String lastName, @Param("email") String email);
+
+  // null fields keep their value, a null version updates whatever version is stored
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("update Employee e set e.firstName = coalesce(:firstName, e.firstName), " +
+          "e.lastName = coalesce(:lastName, e.lastName), e.email = coalesce(:email, e.email), " +
+          "e.version = e.version + 1 where e.id = :id and (:version is null or e.version = :version)")
+  int patch(@Param("id") long id, @Param("version") Long version, @Param("firstName") String firstName,
+            @Param("lastName") String lastName, @Param("email") String email);
+
+  // deletes without loading the entity first (deleteById does a select before the delete),
+  // the number of deleted rows tells whether the employee existed
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("delete from Employee e where e.id = :id")
+  int deleteEmployeeById(@Param("id") long id);
+
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("delete from Employee e where e.id in :ids")
+  int deleteEmployeesByIds(@Param("ids") Collection<Long> ids);
+
+  // only the emails, for building the in-memory email filter
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+  @Query("select e.email from Employee e where e.email is not null")
+  Stream<String> streamAllEmails();
 }
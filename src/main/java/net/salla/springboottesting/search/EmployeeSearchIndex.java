@@ -0,0 +1,325 @@
+package net.salla.springboottesting.search;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import net.salla.springboottesting.dto.EmployeeView;
+import net.salla.springboottesting.jdbc.ReadYourWrites;
+import net.salla.springboottesting.repository.EmployeeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// type-ahead search over first name, last name and email without going to the database (a LIKE '%x%'
+// is a full scan there). the index is built from a streamed scan of the primary once the application is
+// ready and until then only knows the employees written since the start. EmployeeService keeps it up to
+// date, changes made inside a transaction are applied after it commits, an employee is only replaced by
+// a newer version (after-commit callbacks of concurrent transactions run in any order). writes arriving
+// while the index is built again are applied to the new one before it replaces the old one, the scan
+// does not overwrite them with older versions. writes this instance never sees (other instances, the
+// reactive app, plain sql) are picked up by rebuilding every rebuild-interval. once many employees were
+// written since, the index is built again from itself in the background (see TrigramIndex).
+// type-ahead asks the same few prefixes over and over, results are cached until a write changes them:
+// one of their employees changed, or the written one would now be among them
+@Component
+public class EmployeeSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeSearchIndex.class);
+
+    private static final int MAX_CACHED_RESULTS = 1024;
+
+    // a search that was overtaken by more writes than this is not cached
+    private static final int RECENT_CHANGES = 256;
+
+    private final EmployeeRepository employeeRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Duration rebuildInterval;
+
+    private final ScheduledExecutorService rebuildExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "employee-search-index-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rankingScheduled = new AtomicBoolean();
+
+    // writes take the write lock for a few microseconds, searches the read lock only to take the
+    // posting lists they need
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private TrigramIndex index = new TrigramIndex();
+    // the writes since a build started, applied to the new index before it is swapped in
+    private List<Consumer<TrigramIndex>> writesWhileBuilding;
+    // counts the writes, the last RECENT_CHANGES of them are kept to check a result computed meanwhile
+    private long generation;
+    private final Change[] recentChanges = new Change[RECENT_CHANGES];
+    private final Map<ResultKey, TrigramIndex.Result> results = new ConcurrentHashMap<>();
+
+    public EmployeeSearchIndex(EmployeeRepository employeeRepository, PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${employee.search.rebuild-interval:10m}") Duration rebuildInterval) {
+        this.employeeRepository = employeeRepository;
+        this.rebuildInterval = rebuildInterval;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        Gauge.builder("employee.search.index.size", this, EmployeeSearchIndex::size).register(meterRegistry);
+    }
+
+    // a zero interval only builds the index once
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Runnable build = () -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                logger.warn("Building the employee search index failed, search only finds employees written since", e);
+            }
+        };
+        if (rebuildInterval.isZero()) {
+            rebuildExecutor.execute(build);
+        } else {
+            rebuildExecutor.scheduleWithFixedDelay(build, 0, rebuildInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public List<EmployeeView> search(String query, int limit) {
+        ResultKey key = new ResultKey(query, limit);
+        TrigramIndex.Result cached = results.get(key);
+        if (cached != null) {
+            return cached.employees();
+        }
+        Prepared prepared = read(() -> new Prepared(index.prepare(query), generation));
+        TrigramIndex.Result found = prepared.query().search(limit);
+        cache(key, found, prepared.generation());
+        return found.employees();
+    }
+
+    public int size() {
+        return read(() -> index.size());
+    }
+
+    public void put(EmployeeView employee) {
+        write(employee.id(), target -> target.putIfNewer(employee));
+    }
+
+    public void putAfterCommit(Collection<EmployeeView> employees) {
+        List<EmployeeView> added = List.copyOf(employees);
+        afterCommit(() -> added.forEach(this::put));
+    }
+
+    // null fields keep the indexed value, like the patch statement does. version is the one the patch
+    // wrote, null when it is not known (a patch without If-Match) and the indexed version is counted up
+    public void patchAfterCommit(long id, String firstName, String lastName, String email, Long version) {
+        afterCommit(() -> write(id, target -> patch(target, id, firstName, lastName, email, version)));
+    }
+
+    public void remove(long id) {
+        write(id, target -> target.remove(id));
+    }
+
+    public void removeAfterCommit(Collection<Long> ids) {
+        List<Long> removed = List.copyOf(ids);
+        afterCommit(() -> removed.forEach(this::remove));
+    }
+
+    // builds and ranks the index outside the lock, searches keep using the old one meanwhile
+    public synchronized void rebuild() {
+        locked(() -> writesWhileBuilding = new ArrayList<>());
+        try {
+            List<EmployeeView> scanned = new ArrayList<>();
+            // from the primary, a lagging replica would drop writes the current index already has
+            ReadYourWrites.onPrimary(() -> transactionTemplate.execute(status -> {
+                try (Stream<EmployeeView> employees = employeeRepository.streamAllViews()) {
+                    employees.forEach(scanned::add);
+                }
+                return null;
+            }));
+            TrigramIndex next = TrigramIndex.ranked(scanned);
+            swap(next, Change.ALL);
+            logger.info("Employee search index built with {} employees", next.size());
+        } finally {
+            locked(() -> writesWhileBuilding = null);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    // the same employees, the written ones in rank order too. no cached result changes
+    synchronized void rank() {
+        Supplier<List<EmployeeView>> employees = locked(() -> {
+            writesWhileBuilding = new ArrayList<>();
+            return index.employees();
+        });
+        try {
+            swap(TrigramIndex.ranked(employees.get()), null);
+        } finally {
+            locked(() -> writesWhileBuilding = null);
+        }
+    }
+
+    private void swap(TrigramIndex next, Change change) {
+        locked(() -> {
+            writesWhileBuilding.forEach(write -> write.accept(next));
+            index = next;
+            if (change != null) {
+                record(change);
+            }
+            return null;
+        });
+        if (change != null) {
+            results.clear();
+        }
+    }
+
+    private void scheduleRanking() {
+        if (rankingScheduled.compareAndSet(false, true)) {
+            rebuildExecutor.execute(() -> {
+                try {
+                    rank();
+                } catch (RuntimeException e) {
+                    logger.warn("Ranking the employee search index failed", e);
+                } finally {
+                    rankingScheduled.set(false);
+                }
+            });
+        }
+    }
+
+    private static void patch(TrigramIndex target, long id, String firstName, String lastName, String email,
+                              Long version) {
+        EmployeeView current = target.get(id);
+        if (current != null && (version == null || current.version() < version)) {
+            target.put(new EmployeeView(id,
+                    firstName != null ? firstName : current.firstName(),
+                    lastName != null ? lastName : current.lastName(),
+                    email != null ? email : current.email(),
+                    version != null ? version : current.version() + 1));
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // cached only if none of the writes since the query was prepared changes the result. a write
+    // recorded later drops it from the cache itself
+    private void cache(ResultKey key, TrigramIndex.Result result, long preparedAt) {
+        read(() -> {
+            if (generation - preparedAt > RECENT_CHANGES || results.size() >= MAX_CACHED_RESULTS) {
+                return null;
+            }
+            for (long written = preparedAt + 1; written <= generation; written++) {
+                if (recentChanges[(int) (written % RECENT_CHANGES)].changes(result)) {
+                    return null;
+                }
+            }
+            results.put(key, result);
+            return null;
+        });
+    }
+
+    private void write(long id, Consumer<TrigramIndex> write) {
+        Change change = locked(() -> {
+            TrigramIndex.Document before = index.document(id);
+            write.accept(index);
+            if (writesWhileBuilding != null) {
+                writesWhileBuilding.add(write);
+            }
+            TrigramIndex.Document after = index.document(id);
+            if (before == after) {
+                return null;
+            }
+            return record(new Change(before, after));
+        });
+        if (change != null) {
+            results.values().removeIf(change::changes);
+        }
+        if (read(() -> index.needsRanking())) {
+            scheduleRanking();
+        }
+    }
+
+    private Change record(Change change) {
+        generation++;
+        recentChanges[(int) (generation % RECENT_CHANGES)] = change;
+        return change;
+    }
+
+    private <T> T read(Supplier<T> action) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return action.get();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private <T> T locked(Supplier<T> action) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            return action.get();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void locked(Runnable action) {
+        locked(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private record ResultKey(String query, int limit) {
+    }
+
+    private record Prepared(TrigramIndex.Query query, long generation) {
+    }
+
+    // an employee before and after a write, ALL when the whole index was replaced
+    private record Change(TrigramIndex.Document before, TrigramIndex.Document after) {
+
+        static final Change ALL = new Change(null, null);
+
+        boolean changes(TrigramIndex.Result result) {
+            return this == ALL || result.changedBy(before, after);
+        }
+    }
+}
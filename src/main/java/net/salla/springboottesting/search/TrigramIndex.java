@@ -0,0 +1,583 @@
+package net.salla.springboottesting.search;
+
+import net.salla.springboottesting.dto.EmployeeView;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// trigram index over first name, last name and email. every employee gets an int document number and
+// each trigram (three chars packed into a long) maps to the ascending document numbers containing it.
+// fields are indexed with two start markers in front, so a query of one or two chars is a prefix lookup
+// ("\1\1s", "\1sa") and longer ones find the text anywhere in a field. a query of several words
+// matches employees matching every word.
+// an index built by ranked() numbers its employees in rank order (shortest first, then by id), so for
+// a match of a given kind (exact, prefix, word start, infix) the first documents of a posting list are
+// the best ones and a search stops after limit of them. employees written later are numbered after
+// those, kept in separate unranked postings and always scored, EmployeeSearchIndex builds a ranked
+// index again once there are many. not thread safe, EmployeeSearchIndex guards it with a lock
+final class TrigramIndex {
+
+    private static final char START = '\u0001';
+    // in front of the first two chars of every word after the first ("\2gm" for "salla@gmail.com")
+    private static final char WORD = '\u0002';
+    // above the 48 bits of a trigram, the hash of a whole field
+    private static final long EXACT_KEY = 1L << 48;
+
+    // prefix matches rank above matches at a word start ("@gmail", "doe" in "jane doe") above the rest
+    private static final int EXACT = 8;
+    private static final int PREFIX = 4;
+    private static final int WORD_START = 2;
+    private static final int INFIX = 1;
+
+    private static final int UNRANKED_LIMIT = 4096;
+    // a query with more combinations of match kinds (four long words) scores all candidates
+    private static final int MAX_COMBINATIONS = 64;
+
+    private static final Comparator<Document> rank = Comparator.comparingInt((Document document) -> document.length)
+            .thenComparingLong(document -> document.employee.id());
+
+    private static final Comparator<Hit> worstFirst = Comparator.comparingInt(Hit::score)
+            .thenComparing(Comparator.comparingInt(Hit::length).reversed())
+            .thenComparing(Comparator.comparingLong((Hit hit) -> hit.employee().id()).reversed());
+
+    private final LongObjectHashMap<Postings> postings = new LongObjectHashMap<>(1 << 14);
+    private final LongObjectHashMap<Document> documentsById = new LongObjectHashMap<>(1 << 14);
+
+    // document numbers are handed out in increasing order and never reused, so postings stay sorted by
+    // appending. a removed employee leaves a hole in the ranked postings until the index is built again
+    private Document[] documents = new Document[1024];
+    private int nextDocument;
+    // documents below are in rank order
+    private int ranked;
+    private boolean ranking;
+    private int liveUnranked;
+    private int removedUnranked;
+    private List<Postings> unrankedPostings = new ArrayList<>();
+
+    // ids have to be unique
+    static TrigramIndex ranked(Collection<EmployeeView> employees) {
+        TrigramIndex index = new TrigramIndex();
+        index.ranking = true;
+        employees.stream().map(Document::new).sorted(rank).forEach(index::add);
+        index.ranking = false;
+        index.ranked = index.nextDocument;
+        index.liveUnranked = 0;
+        return index;
+    }
+
+    int size() {
+        return documentsById.size();
+    }
+
+    int removed() {
+        return nextDocument - documentsById.size();
+    }
+
+    int unranked() {
+        return liveUnranked;
+    }
+
+    // a broad query scores every unranked employee. removed ones are dropped from the unranked postings
+    // on the way, holes in the ranked ones are only walked over until the first limit matches
+    boolean needsRanking() {
+        return liveUnranked > UNRANKED_LIMIT || (removed() > UNRANKED_LIMIT && removed() > size());
+    }
+
+    EmployeeView get(long id) {
+        Document document = documentsById.get(id);
+        return document == null ? null : document.employee;
+    }
+
+    Document document(long id) {
+        return documentsById.get(id);
+    }
+
+    // the employees indexed now, read after the lock is released (see Query)
+    Supplier<List<EmployeeView>> employees() {
+        Document[] documents = this.documents;
+        int count = nextDocument;
+        return () -> Arrays.stream(documents, 0, count)
+                .filter(Objects::nonNull)
+                .map(document -> document.employee)
+                .toList();
+    }
+
+    void put(EmployeeView employee) {
+        remove(employee.id());
+        add(new Document(employee));
+    }
+
+    // for rows read by a rebuild, which may be older than what was put meanwhile
+    void putIfNewer(EmployeeView employee) {
+        EmployeeView current = get(employee.id());
+        if (current == null || current.version() < employee.version()) {
+            put(employee);
+        }
+    }
+
+    // the postings of a removed employee stay until the index is built again
+    void remove(long id) {
+        Document document = documentsById.remove(id);
+        if (document != null) {
+            documents[document.number] = null;
+            if (document.number >= ranked) {
+                liveUnranked--;
+                if (++removedUnranked > UNRANKED_LIMIT) {
+                    compactUnranked();
+                }
+            }
+        }
+    }
+
+    // an employee updated over and over would leave a removed document per update for every search
+    private void compactUnranked() {
+        List<Postings> kept = new ArrayList<>();
+        for (Postings list : unrankedPostings) {
+            list.retainUnranked(documents);
+            if (list.unrankedSize > 0) {
+                kept.add(list);
+            }
+        }
+        unrankedPostings = kept;
+        removedUnranked = 0;
+    }
+
+    // the best limit matches, best first
+    List<EmployeeView> search(String query, int limit) {
+        return prepare(query).search(limit).employees();
+    }
+
+    // takes the posting lists a query needs. lists are only appended to (past the size taken here, or
+    // into a new array), compacting replaces the array and document slots are only cleared, so the query
+    // runs after the lock is released
+    Query prepare(String query) {
+        String[] terms = Arrays.stream(normalize(query).split("\\s+"))
+                .filter(term -> !term.isEmpty())
+                .toArray(String[]::new);
+        Tier[][] tiers = new Tier[terms.length][];
+        for (int i = 0; i < terms.length; i++) {
+            List<Tier> kinds = tiers(terms[i]);
+            List<Tier> available = new ArrayList<>(kinds.size());
+            for (Tier kind : kinds) {
+                Slice[] lists = slices(kind.keys, true);
+                if (lists != null) {
+                    available.add(new Tier(kind.score, kind.keys, lists, slices(kind.keys, false)));
+                }
+            }
+            // the last kind takes every match of the term, without its lists nothing matches
+            if (available.isEmpty() || available.get(available.size() - 1).score != kinds.get(kinds.size() - 1).score) {
+                return new Query(terms, null, documents);
+            }
+            tiers[i] = available.toArray(Tier[]::new);
+        }
+        return new Query(terms, tiers, documents);
+    }
+
+    // null when a key has no postings
+    private Slice[] slices(long[] keys, boolean ranked) {
+        Slice[] lists = new Slice[keys.length];
+        for (int k = 0; k < keys.length; k++) {
+            Postings list = postings.get(keys[k]);
+            if (list == null) {
+                return null;
+            }
+            lists[k] = ranked ? new Slice(list.ranked, list.rankedSize) : new Slice(list.unranked, list.unrankedSize);
+        }
+        return lists;
+    }
+
+    private void add(Document document) {
+        if (nextDocument == documents.length) {
+            documents = Arrays.copyOf(documents, documents.length * 2);
+        }
+        int number = nextDocument++;
+        liveUnranked++;
+        document.number = number;
+        documents[number] = document;
+        documentsById.put(document.employee.id(), document);
+        for (String field : document.fields) {
+            add(EXACT_KEY | (field.hashCode() & 0xffffffffL), number);
+            String padded = "" + START + START + field;
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                add(trigram(padded, i), number);
+            }
+            for (int i = 1; i + 2 <= field.length(); i++) {
+                if (!Character.isLetterOrDigit(field.charAt(i - 1))) {
+                    add(trigram(WORD, field.charAt(i), field.charAt(i + 1)), number);
+                }
+            }
+        }
+    }
+
+    private void add(long key, int number) {
+        Postings list = postings.get(key);
+        if (list == null) {
+            list = new Postings();
+            postings.put(key, list);
+        }
+        if (ranking) {
+            list.addRanked(number);
+        } else if (list.addUnranked(number)) {
+            unrankedPostings.add(list);
+        }
+    }
+
+    // the kinds of match a term can have, best first, each with the keys every such match has.
+    // terms shorter than three chars only match at the start of a field
+    private static List<Tier> tiers(String term) {
+        List<Tier> tiers = new ArrayList<>(4);
+        tiers.add(new Tier(EXACT, new long[]{EXACT_KEY | (term.hashCode() & 0xffffffffL)}, null, null));
+        if (term.length() < 3) {
+            String padded = (term.length() == 1 ? "" + START + START : "" + START) + term;
+            tiers.add(new Tier(PREFIX, new long[]{trigram(padded, 0)}, null, null));
+            return tiers;
+        }
+        long[] trigrams = new long[term.length() - 2];
+        for (int i = 0; i < trigrams.length; i++) {
+            trigrams[i] = trigram(term, i);
+        }
+        tiers.add(new Tier(PREFIX, with(trigrams, trigram(START, term.charAt(0), term.charAt(1))), null, null));
+        tiers.add(new Tier(WORD_START, with(trigrams, trigram(WORD, term.charAt(0), term.charAt(1))), null, null));
+        tiers.add(new Tier(INFIX, trigrams, null, null));
+        return tiers;
+    }
+
+    private static long[] with(long[] keys, long key) {
+        long[] all = Arrays.copyOf(keys, keys.length + 1);
+        all[keys.length] = key;
+        return all;
+    }
+
+    private static long trigram(String text, int start) {
+        return trigram(text.charAt(start), text.charAt(start + 1), text.charAt(start + 2));
+    }
+
+    private static long trigram(char first, char second, char third) {
+        return ((long) first << 32) | ((long) second << 16) | third;
+    }
+
+    // every term has to match a field, short terms only at the start of one
+    private static int score(Document document, String[] terms) {
+        int total = 0;
+        for (String term : terms) {
+            int best = score(document, term);
+            if (best == 0) {
+                return 0;
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    private static int score(Document document, String term) {
+        int best = 0;
+        for (String field : document.fields) {
+            best = Math.max(best, score(field, term));
+        }
+        return best;
+    }
+
+    private static int score(String field, String term) {
+        if (field.equals(term)) {
+            return EXACT;
+        }
+        if (field.startsWith(term)) {
+            return PREFIX;
+        }
+        if (term.length() < 3) {
+            return 0;
+        }
+        int best = 0;
+        for (int at = field.indexOf(term); at >= 0; at = field.indexOf(term, at + 1)) {
+            if (!Character.isLetterOrDigit(field.charAt(at - 1))) {
+                return WORD_START;
+            }
+            best = INFIX;
+        }
+        return best;
+    }
+
+    static String normalize(String text) {
+        return text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // the same order as worstFirst, without allocating a hit for the candidate
+    private static boolean beats(int score, Document document, Hit worst) {
+        if (score != worst.score()) {
+            return score > worst.score();
+        }
+        if (document.length != worst.length()) {
+            return document.length < worst.length();
+        }
+        return document.employee.id() < worst.employee().id();
+    }
+
+    // calls visit with the documents that are in every list, ascending, until it returns false. the
+    // shortest list is walked, the others are searched by galloping (steps of 1, 2, 4, ... then a binary
+    // search), so a selective trigram ("a12") keeps the work small however common the others ("sal") are
+    private static void intersect(Slice[] lists, IntPredicate visit) {
+        Slice[] sorted = lists.clone();
+        Arrays.sort(sorted, Comparator.comparingInt(Slice::size));
+        int[] at = new int[sorted.length];
+        Slice shortest = sorted[0];
+        candidates:
+        for (int i = 0; i < shortest.size(); i++) {
+            int candidate = shortest.documents()[i];
+            for (int k = 1; k < sorted.length; k++) {
+                at[k] = seek(sorted[k], at[k], candidate);
+                if (at[k] == sorted[k].size()) {
+                    return;
+                }
+                if (sorted[k].documents()[at[k]] != candidate) {
+                    continue candidates;
+                }
+            }
+            if (!visit.test(candidate)) {
+                return;
+            }
+        }
+    }
+
+    // the first position at or after from holding a document >= target
+    private static int seek(Slice list, int from, int target) {
+        int step = 1;
+        int to = from;
+        while (to < list.size() && list.documents()[to] < target) {
+            from = to + 1;
+            to += step;
+            step <<= 1;
+        }
+        int at = Arrays.binarySearch(list.documents(), from, Math.min(to + 1, list.size()), target);
+        return at >= 0 ? at : -at - 1;
+    }
+
+    // a search over the lists taken by prepare()
+    static final class Query {
+
+        private final String[] terms;
+        // per term the available kinds of match, null when some term matches nothing
+        private final Tier[][] tiers;
+        private final Document[] documents;
+
+        private Query(String[] terms, Tier[][] tiers, Document[] documents) {
+            this.terms = terms;
+            this.tiers = tiers;
+            this.documents = documents;
+        }
+
+        Result search(int limit) {
+            PriorityQueue<Hit> best = new PriorityQueue<>(Math.max(1, limit) + 1, worstFirst);
+            if (tiers == null || terms.length == 0 || limit <= 0) {
+                return new Result(List.of(), terms, limit, null);
+            }
+            // the employees written since the index was ranked are all scored
+            scoreAll(Arrays.stream(tiers).flatMap(term -> Arrays.stream(term[term.length - 1].unrankedLists))
+                    .toArray(Slice[]::new), best, limit);
+
+            List<Combination> combinations = combinations();
+            if (combinations == null) {
+                scoreAll(Arrays.stream(tiers).flatMap(term -> Arrays.stream(term[term.length - 1].lists))
+                        .toArray(Slice[]::new), best, limit);
+            } else {
+                // every ranked match is found under one combination of its terms' kinds of match, in rank
+                // order, so a combination stops at the first match that does not make it into the best
+                // and the ones scoring less than the worst of a full result are not looked at
+                for (Combination combination : combinations) {
+                    if (best.size() == limit && combination.score < best.peek().score()) {
+                        break;
+                    }
+                    intersect(combination.lists, candidate -> {
+                        Document document = documents[candidate];
+                        if (document == null || !combination.matches(document, terms)) {
+                            return true;
+                        }
+                        if (best.size() == limit && !beats(combination.score, document, best.peek())) {
+                            return false;
+                        }
+                        offer(best, limit, document, combination.score);
+                        return true;
+                    });
+                }
+            }
+
+            Hit worst = best.size() == limit ? best.peek() : null;
+            List<EmployeeView> found = new ArrayList<>(best.size());
+            best.stream().sorted(worstFirst.reversed()).forEach(hit -> found.add(hit.employee()));
+            return new Result(List.copyOf(found), terms, limit, worst);
+        }
+
+        // the trigrams only narrow it down ("abcab" has the trigrams of "bcabc"), the fields decide
+        private void scoreAll(Slice[] lists, PriorityQueue<Hit> best, int limit) {
+            intersect(lists, candidate -> {
+                Document document = documents[candidate];
+                if (document != null) {
+                    offer(best, limit, document, score(document, terms));
+                }
+                return true;
+            });
+        }
+
+        // best first, null when there are too many
+        private List<Combination> combinations() {
+            int count = 1;
+            for (Tier[] term : tiers) {
+                count *= term.length;
+                if (count > MAX_COMBINATIONS) {
+                    return null;
+                }
+            }
+            List<Combination> combinations = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int[] scores = new int[tiers.length];
+                List<Slice> lists = new ArrayList<>();
+                int score = 0;
+                for (int t = 0, rest = i; t < tiers.length; rest /= tiers[t].length, t++) {
+                    Tier tier = tiers[t][rest % tiers[t].length];
+                    scores[t] = tier.score;
+                    score += tier.score;
+                    lists.addAll(Arrays.asList(tier.lists));
+                }
+                combinations.add(new Combination(score, scores, lists.toArray(Slice[]::new)));
+            }
+            combinations.sort(Comparator.comparingInt((Combination combination) -> combination.score).reversed());
+            return combinations;
+        }
+
+        // most candidates of a broad query lose against the current worst, they are not allocated
+        private static void offer(PriorityQueue<Hit> best, int limit, Document document, int score) {
+            if (score == 0 || (best.size() == limit && !beats(score, document, best.peek()))) {
+                return;
+            }
+            best.add(new Hit(document.employee, score, document.length));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+    }
+
+    // the best matches of a query, and what a write has to change to make them outdated
+    static final class Result {
+
+        private final List<EmployeeView> employees;
+        private final String[] terms;
+        private final int limit;
+        // null while fewer than limit matched
+        private final Hit worst;
+
+        private Result(List<EmployeeView> employees, String[] terms, int limit, Hit worst) {
+            this.employees = employees;
+            this.terms = terms;
+            this.limit = limit;
+            this.worst = worst;
+        }
+
+        List<EmployeeView> employees() {
+            return employees;
+        }
+
+        // the employee before and after a write, null when it was not indexed or is removed
+        boolean changedBy(Document before, Document after) {
+            if (before != null && employees.stream().anyMatch(employee -> employee.id() == before.employee.id())) {
+                return true;
+            }
+            if (after == null || limit <= 0 || terms.length == 0) {
+                return false;
+            }
+            int score = score(after, terms);
+            return score > 0 && (worst == null || beats(score, after, worst));
+        }
+    }
+
+    static final class Document {
+
+        private final EmployeeView employee;
+        private final String[] fields;
+        private final int length;
+        private int number;
+
+        private Document(EmployeeView employee) {
+            this.employee = employee;
+            this.fields = Stream.of(employee.firstName(), employee.lastName(), employee.email())
+                    .filter(field -> field != null && !field.isBlank())
+                    .map(TrigramIndex::normalize)
+                    .toArray(String[]::new);
+            this.length = Arrays.stream(fields).mapToInt(String::length).sum();
+        }
+    }
+
+    // ascending document numbers, the ranked ones fixed once the index is built and the unranked ones
+    // appended to, only compacting them replaces the array
+    private static final class Postings {
+
+        private int[] ranked = new int[0];
+        private int rankedSize;
+        private int[] unranked = new int[0];
+        private int unrankedSize;
+
+        void addRanked(int document) {
+            if (rankedSize > 0 && ranked[rankedSize - 1] == document) {
+                return;
+            }
+            if (rankedSize == ranked.length) {
+                ranked = Arrays.copyOf(ranked, Math.max(4, rankedSize * 2));
+            }
+            ranked[rankedSize++] = document;
+        }
+
+        // true for the first unranked document
+        boolean addUnranked(int document) {
+            if (unrankedSize > 0 && unranked[unrankedSize - 1] == document) {
+                return false;
+            }
+            if (unrankedSize == unranked.length) {
+                unranked = Arrays.copyOf(unranked, Math.max(4, unrankedSize * 2));
+            }
+            unranked[unrankedSize++] = document;
+            return unrankedSize == 1;
+        }
+
+        void retainUnranked(Document[] documents) {
+            int[] kept = new int[Math.max(4, unrankedSize)];
+            int size = 0;
+            for (int i = 0; i < unrankedSize; i++) {
+                if (documents[unranked[i]] != null) {
+                    kept[size++] = unranked[i];
+                }
+            }
+            unranked = kept;
+            unrankedSize = size;
+        }
+    }
+
+    // a posting list as it was when the query was prepared
+    private record Slice(int[] documents, int size) {
+    }
+
+    private record Tier(int score, long[] keys, Slice[] lists, Slice[] unrankedLists) {
+    }
+
+    // one kind of match per term
+    private record Combination(int score, int[] scores, Slice[] lists) {
+
+        boolean matches(Document document, String[] terms) {
+            for (int t = 0; t < terms.length; t++) {
+                if (TrigramIndex.score(document, terms[t]) != scores[t]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private record Hit(EmployeeView employee, int score, int length) {
+    }
+}
@@ -0,0 +1,16 @@
+package net.salla.springboottesting.service;
+
+import net.salla.springboottesting.dto.EmployeeImportResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface EmployeeImportService {
+    int CHUNK_SIZE = 1000;
+
+    // reads a json array of employees element by element
+    EmployeeImportResult importJson(InputStream inputStream) throws IOException;
+
+    // reads csv rows with a firstName,lastName,email header line
+    EmployeeImportResult importCsv(InputStream inputStream) throws IOException;
+}
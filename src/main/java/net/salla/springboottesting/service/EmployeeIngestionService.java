@@ -0,0 +1,16 @@
+package net.salla.springboottesting.service;
+
+import net.salla.springboottesting.dto.EmployeeIngestionStatus;
+import net.salla.springboottesting.model.Employee;
+
+import java.util.Optional;
+
+// write-behind creates: employees are queued and written in batches by a background writer
+public interface EmployeeIngestionService {
+
+    // answers as soon as the employee is queued, throws IngestionQueueFullException when the queue is full
+    EmployeeIngestionStatus enqueue(Employee employee);
+
+    // empty for an unknown tracking id and once the status expired (employee.ingestion.status-ttl)
+    Optional<EmployeeIngestionStatus> getStatus(String trackingId);
+}
@@ -1,18 +1,57 @@
 package net.salla.springboottesting.service;
 
+import net.salla.springboottesting.dto.EmployeePage;
+import net.salla.springboottesting.dto.EmployeeView;
 import net.salla.springboottesting.model.Employee;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface EmployeeService {
+    int MAX_PAGE_SIZE = 1000;
+
+    int MAX_BATCH_SIZE = 1000;
+
+    int MAX_SEARCH_RESULTS = 100;
+
     Employee saveEmployee(Employee employee);
 
-    List<Employee> getAllEmployees();
+    // saves all employees in one transaction with batched inserts, fails as a whole if any email is taken
+    List<Employee> saveEmployees(List<Employee> employees);
+
+    // the list reads, the export and the email lookup return EmployeeView projections, not entities
+    List<EmployeeView> getAllEmployees();
+
+    // returns at most limit employees with id greater than after, limit is capped at MAX_PAGE_SIZE
+    EmployeePage getEmployeesAfter(long after, int limit);
+
+    // hands every employee to the consumer one by one without keeping them in memory
+    void exportEmployees(Consumer<EmployeeView> consumer);
 
     Optional<Employee> getEmployeeById(Long id);
 
-    Employee updateEmployee(Employee employee);
+    // always queries the database, concurrent lookups of the same email share the query
+    Optional<EmployeeView> getEmployeeByEmail(String email);
 
+    // type-ahead search in memory, every word of the query has to match the start of a first name, last name
+    // or email, words of three or more chars may also match inside one. at most MAX_SEARCH_RESULTS, best first
+    List<EmployeeView> searchEmployees(String query, int limit);
+
+    // one query for all ids not cached yet, unknown ids are left out, at most MAX_BATCH_SIZE ids
+    List<Employee> getEmployeesByIds(Collection<Long> ids);
+
+    // sets first name, last name and email if the stored version is expectedVersion (or the current
+    // version when it is null), returns empty when there is no employee with that id
+    Optional<Employee> replaceEmployee(long id, Employee employee, Long expectedVersion);
+
+    // sets only the non null fields in one conditional update
+    void patchEmployee(long id, Employee changes, Long expectedVersion);
+
+    // throws ResourceNotFoundException when there is no employee with that id
     void deleteEmployee(Long id);
+
+    // deletes in one statement and returns how many employees existed
+    int deleteEmployees(Collection<Long> ids);
 }
@@ -0,0 +1,23 @@
+package net.salla.springboottesting.service.impl;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+// maps database constraint violations back to the rule they enforce
+final class ConstraintViolations {
+
+    static final String EMAIL_UNIQUE = "uk_employees_email";
+
+    private ConstraintViolations() {
+    }
+
+    static boolean isDuplicateEmail(DataIntegrityViolationException exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                String name = violation.getConstraintName() != null ? violation.getConstraintName() : violation.getMessage();
+                return name != null && name.toLowerCase().contains(EMAIL_UNIQUE);
+            }
+        }
+        return false;
+    }
+}
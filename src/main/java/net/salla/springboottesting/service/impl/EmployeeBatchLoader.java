@@ -0,0 +1,132 @@
+package net.salla.springboottesting.service.impl;
+
+import net.salla.springboottesting.model.Employee;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+// coalesces concurrent lookups by id into one "where id in (...)" query, dataloader style.
+// the first caller opens a batch and becomes its leader, callers arriving while it is open only
+// add their id and wait. the leader waits up to the window (or until the batch is full), closes
+// the batch and runs one query for all ids. a leader without company runs the single id query
+// right away, so lookups only pay the window when other lookups are actually in flight.
+@Component
+public class EmployeeBatchLoader {
+
+    private final long windowNanos;
+    private final int maxBatchSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private Batch open;  // guarded by lock
+
+    public EmployeeBatchLoader(@Value("${employee.batch-loader.window:200us}") Duration window,
+                               @Value("${employee.batch-loader.max-batch-size:100}") int maxBatchSize) {
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public Optional<Employee> load(Long id, Function<Long, Optional<Employee>> loader,
+                                   Function<List<Long>, List<Employee>> batchLoader) {
+        if (windowNanos <= 0) {
+            return loader.apply(id);
+        }
+        inFlight.incrementAndGet();
+        try {
+            Batch batch;
+            CompletableFuture<Optional<Employee>> result;
+            boolean leader;
+            lock.lock();
+            try {
+                leader = open == null;
+                if (leader) {
+                    open = new Batch(Thread.currentThread());
+                }
+                batch = open;
+                result = batch.results.computeIfAbsent(id, key -> new CompletableFuture<>());
+                if (batch.results.size() >= maxBatchSize) {
+                    open = null;
+                    batch.full = true;
+                    LockSupport.unpark(batch.leader);
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (leader) {
+                if (inFlight.get() > 1) {
+                    long deadline = System.nanoTime() + windowNanos;
+                    long remaining;
+                    while (!batch.full && (remaining = deadline - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(this, remaining);
+                    }
+                }
+                lock.lock();
+                try {
+                    if (open == batch) {
+                        open = null;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                batch.run(loader, batchLoader);
+            }
+            return await(result);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private static Optional<Employee> await(CompletableFuture<Optional<Employee>> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Batch {
+
+        private final Thread leader;
+        private final Map<Long, CompletableFuture<Optional<Employee>>> results = new LinkedHashMap<>();
+        private volatile boolean full;
+
+        private Batch(Thread leader) {
+            this.leader = leader;
+        }
+
+        // runs after the batch is closed, nobody adds to results any more
+        private void run(Function<Long, Optional<Employee>> loader, Function<List<Long>, List<Employee>> batchLoader) {
+            try {
+                if (results.size() == 1) {
+                    Map.Entry<Long, CompletableFuture<Optional<Employee>>> only = results.entrySet().iterator().next();
+                    only.getValue().complete(loader.apply(only.getKey()));
+                    return;
+                }
+                Map<Long, Employee> found = new HashMap<>();
+                for (Employee employee : batchLoader.apply(new ArrayList<>(results.keySet()))) {
+                    found.put(employee.getId(), employee);
+                }
+                results.forEach((id, result) -> result.complete(Optional.ofNullable(found.get(id))));
+            } catch (Throwable e) {
+                results.values().forEach(result -> result.completeExceptionally(e));
+            }
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package net.salla.springboottesting.service.impl;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import jakarta.persistence.EntityManager;
+import net.salla.springboottesting.cache.EmployeeCache;
+import net.salla.springboottesting.cache.EmployeeEmailFilter;
+import net.salla.springboottesting.dto.EmployeeImportResult;
+import net.salla.springboottesting.dto.EmployeeView;
+import net.salla.springboottesting.model.Employee;
+import net.salla.springboottesting.repository.EmployeeRepository;
+import net.salla.springboottesting.search.EmployeeSearchIndex;
+import net.salla.springboottesting.service.EmployeeImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+// parses the upload incrementally and commits every CHUNK_SIZE rows in its own transaction,
+// so neither the upload nor the persistence context ever holds more than one chunk
+@Service
+public class EmployeeImportServiceImpl implements EmployeeImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeImportServiceImpl.class);
+
+    private EmployeeRepository employeeRepository;
+
+    private EntityManager entityManager;
+
+    private EmployeeCache employeeCache;
+
+    private EmployeeEmailFilter employeeEmailFilter;
+
+    private EmployeeSearchIndex employeeSearchIndex;
+
+    private ObjectMapper objectMapper;
+
+    private CsvMapper csvMapper;
+
+    private TransactionTemplate transactionTemplate;
+
+    public EmployeeImportServiceImpl(EmployeeRepository employeeRepository, EntityManager entityManager,
+                                     EmployeeCache employeeCache, EmployeeEmailFilter employeeEmailFilter,
+                                     EmployeeSearchIndex employeeSearchIndex, ObjectMapper objectMapper,
+                                     PlatformTransactionManager transactionManager) {
+        this.employeeRepository = employeeRepository;
+        this.entityManager = entityManager;
+        this.employeeCache = employeeCache;
+        this.employeeEmailFilter = employeeEmailFilter;
+        this.employeeSearchIndex = employeeSearchIndex;
+        this.objectMapper = objectMapper;
+        this.csvMapper = CsvMapper.builder()
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public EmployeeImportResult importJson(InputStream inputStream) throws IOException {
+        try (MappingIterator<Employee> rows = objectMapper.readerFor(Employee.class).readValues(inputStream)) {
+            return importRows(rows);
+        }
+    }
+
+    @Override
+    public EmployeeImportResult importCsv(InputStream inputStream) throws IOException {
+        CsvSchema schema = CsvSchema.emptySchema().withHeader();
+        try (MappingIterator<Employee> rows = csvMapper.readerFor(Employee.class).with(schema).readValues(inputStream)) {
+            return importRows(rows);
+        }
+    }
+
+    private EmployeeImportResult importRows(MappingIterator<Employee> rows) {
+        EmployeeImportResult result = new EmployeeImportResult();
+        List<Employee> chunk = new ArrayList<>(CHUNK_SIZE);
+        List<Long> chunkRows = new ArrayList<>(CHUNK_SIZE);
+        long row = 0;
+
+        while (true) {
+            Employee employee;
+            try {
+                if (!rows.hasNextValue()) {
+                    break;
+                }
+                row++;
+                result.addProcessed();
+                employee = rows.nextValue();
+            } catch (RuntimeJsonMappingException | DatabindException e) {
+                // a row that does not map to an employee, the iterator skips to the next one
+                result.addError(row, e.getMessage());
+                continue;
+            } catch (JsonParseException e) {
+                // broken syntax, there is no way to find the next row
+                result.addError(row, e.getOriginalMessage());
+                break;
+            } catch (IOException e) {
+                result.addError(row, e.getMessage());
+                break;
+            }
+
+            if (isBlank(employee.getFirstName()) || isBlank(employee.getLastName())) {
+                result.addError(row, "firstName and lastName are required");
+                continue;
+            }
+            employee.setId(0);
+            chunk.add(employee);
+            chunkRows.add(row);
+
+            if (chunk.size() == CHUNK_SIZE) {
+                commitChunk(chunk, chunkRows, result);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            commitChunk(chunk, chunkRows, result);
+        }
+
+        logger.info("Employee import finished: {} processed, {} imported, {} failed",
+                result.getProcessed(), result.getImported(), result.getFailed());
+        return result;
+    }
+
+    private void commitChunk(List<Employee> chunk, List<Long> chunkRows, EmployeeImportResult result) {
+        try {
+            commitRows(chunk, chunkRows, result);
+        } catch (DataIntegrityViolationException e) {
+            // a taken email the email filter did not know about (written by another instance, say) fails
+            // the whole chunk, written again one row per transaction only that row is rejected
+            logger.warn("Employee import chunk ending at row {} violated a constraint, importing it row by row",
+                    chunkRows.get(chunkRows.size() - 1), e);
+            for (int i = 0; i < chunk.size(); i++) {
+                commitRow(chunk.get(i), chunkRows.get(i), result);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Employee import chunk ending at row {} failed", chunkRows.get(chunkRows.size() - 1), e);
+            for (Long row : chunkRows) {
+                result.addError(row, "chunk rolled back: " + e.getMessage());
+            }
+        }
+        chunk.clear();
+        chunkRows.clear();
+        logger.info("Employee import progress: {} processed, {} imported, {} failed",
+                result.getProcessed(), result.getImported(), result.getFailed());
+    }
+
+    private void commitRow(Employee employee, Long row, EmployeeImportResult result) {
+        // the rolled back chunk left its sequence id and version on the entity
+        employee.setId(0);
+        employee.setVersion(0);
+        try {
+            commitRows(List.of(employee), List.of(row), result);
+        } catch (DataIntegrityViolationException e) {
+            result.addError(row, "row rejected: " + e.getMostSpecificCause().getMessage());
+        } catch (RuntimeException e) {
+            logger.warn("Employee import row {} failed", row, e);
+            result.addError(row, "row rolled back: " + e.getMessage());
+        }
+    }
+
+    private void commitRows(List<Employee> employees, List<Long> rows, EmployeeImportResult result) {
+        List<EmployeeImportResult.RowError> rejected = new ArrayList<>();
+        long imported = transactionTemplate.execute(status -> saveChunk(employees, rows, rejected));
+        result.addImported(imported);
+        rejected.forEach(error -> result.addError(error.getRow(), error.getMessage()));
+    }
+
+    // same email rule as EmployeeServiceImpl.saveEmployee, but one query per chunk instead of one per row
+    private long saveChunk(List<Employee> chunk, List<Long> chunkRows, List<EmployeeImportResult.RowError> rejected) {
+        Set<String> candidateEmails = new HashSet<>();
+        for (Employee employee : chunk) {
+            if (employee.getEmail() != null && employeeEmailFilter.mightContain(employee.getEmail())) {
+                candidateEmails.add(employee.getEmail());
+            }
+        }
+        Set<String> takenEmails = new HashSet<>();
+        if (!candidateEmails.isEmpty()) {
+            takenEmails.addAll(employeeRepository.findExistingEmails(candidateEmails));
+            employeeEmailFilter.recordFalsePositives(candidateEmails.size() - takenEmails.size());
+        }
+
+        List<Employee> employees = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            Employee employee = chunk.get(i);
+            if (employee.getEmail() != null && !takenEmails.add(employee.getEmail())) {
+                rejected.add(new EmployeeImportResult.RowError(chunkRows.get(i),
+                        "Employee already exits with given email: " + employee.getEmail()));
+                continue;
+            }
+            employees.add(employee);
+        }
+
+        employeeRepository.saveAll(employees);
+        employeeCache.evictAfterCommit(employees.stream().map(Employee::getId).toList());
+        employeeEmailFilter.putAfterCommit(employees.stream().map(Employee::getEmail).filter(Objects::nonNull).toList());
+        employeeSearchIndex.putAfterCommit(employees.stream().map(EmployeeView::of).toList());
+        // through the repository so a constraint violation arrives as a DataIntegrityViolationException
+        employeeRepository.flush();
+        entityManager.clear();
+        return employees.size();
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,280 @@
+package net.salla.springboottesting.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import net.salla.springboottesting.cache.EmployeeCache;
+import net.salla.springboottesting.cache.EmployeeEmailFilter;
+import net.salla.springboottesting.dto.EmployeeIngestionStatus;
+import net.salla.springboottesting.dto.EmployeeView;
+import net.salla.springboottesting.exception.IngestionQueueFullException;
+import net.salla.springboottesting.exception.ResourceAlreadyExistsException;
+import net.salla.springboottesting.model.Employee;
+import net.salla.springboottesting.repository.EmployeeRepository;
+import net.salla.springboottesting.search.EmployeeSearchIndex;
+import net.salla.springboottesting.service.EmployeeIngestionService;
+import net.salla.springboottesting.service.EmployeeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// write-behind creates. requests only put the employee into a bounded queue (a full queue answers 429),
+// one writer takes up to batch-size of them, waiting at most flush-interval after the first for more,
+// and saves them in one transaction: one query for the taken emails and batched inserts, which the
+// mysql driver (rewriteBatchedStatements) sends as multi-row inserts. a batch that fails anyway
+// (an email taken between the check and the insert) is written again row by row through
+// EmployeeService so only the offending employee fails. on shutdown the queue is drained first.
+// employees are counted as employee.ingestion.employees{result=created|rejected|failed|throttled}.
+@Service
+public class EmployeeIngestionServiceImpl implements EmployeeIngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeIngestionServiceImpl.class);
+
+    // how often an idle writer looks whether it should stop
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final EmployeeRepository employeeRepository;
+    private final EmployeeService employeeService;
+    private final EmployeeCache employeeCache;
+    private final EmployeeEmailFilter employeeEmailFilter;
+    private final EmployeeSearchIndex employeeSearchIndex;
+    private final EmployeeMetrics employeeMetrics;
+    private final TransactionTemplate transactionTemplate;
+
+    private final BlockingQueue<Pending> queue;
+    private final Cache<String, EmployeeIngestionStatus> statuses;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Duration shutdownTimeout;
+
+    private final Map<EmployeeIngestionStatus.State, Counter> written = new EnumMap<>(EmployeeIngestionStatus.State.class);
+    private final Counter throttled;
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "employee-ingestion-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean accepting = true;
+
+    public EmployeeIngestionServiceImpl(EmployeeRepository employeeRepository, EmployeeService employeeService,
+                                        EmployeeCache employeeCache, EmployeeEmailFilter employeeEmailFilter,
+                                        EmployeeSearchIndex employeeSearchIndex, EmployeeMetrics employeeMetrics,
+                                        PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                                        @Value("${employee.ingestion.capacity:10000}") int capacity,
+                                        @Value("${employee.ingestion.batch-size:500}") int batchSize,
+                                        @Value("${employee.ingestion.flush-interval:20ms}") Duration flushInterval,
+                                        @Value("${employee.ingestion.shutdown-timeout:30s}") Duration shutdownTimeout,
+                                        @Value("${employee.ingestion.status-ttl:1h}") Duration statusTtl,
+                                        @Value("${employee.ingestion.max-statuses:100000}") long maxStatuses) {
+        this.employeeRepository = employeeRepository;
+        this.employeeService = employeeService;
+        this.employeeCache = employeeCache;
+        this.employeeEmailFilter = employeeEmailFilter;
+        this.employeeSearchIndex = employeeSearchIndex;
+        this.employeeMetrics = employeeMetrics;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(maxStatuses)
+                .expireAfterWrite(statusTtl)
+                .build();
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.shutdownTimeout = shutdownTimeout;
+
+        for (EmployeeIngestionStatus.State state : List.of(EmployeeIngestionStatus.State.CREATED,
+                EmployeeIngestionStatus.State.REJECTED, EmployeeIngestionStatus.State.FAILED)) {
+            written.put(state, counter(meterRegistry, state.name().toLowerCase()));
+        }
+        this.throttled = counter(meterRegistry, "throttled");
+        Gauge.builder("employee.ingestion.queue.size", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        writer.execute(this::writeUntilShutdown);
+    }
+
+    @Override
+    public EmployeeIngestionStatus enqueue(Employee employee) {
+        if (!accepting) {
+            throttled.increment();
+            throw new IngestionQueueFullException("Employee ingestion is shutting down");
+        }
+        String trackingId = UUID.randomUUID().toString();
+        EmployeeIngestionStatus queued = EmployeeIngestionStatus.queued(trackingId);
+        // stored before the writer can see the employee, so it never overwrites the written status
+        statuses.put(trackingId, queued);
+        if (!queue.offer(new Pending(trackingId, employee.getFirstName(), employee.getLastName(), employee.getEmail()))) {
+            statuses.invalidate(trackingId);
+            throttled.increment();
+            throw new IngestionQueueFullException("Employee ingestion queue is full, retry later");
+        }
+        return queued;
+    }
+
+    @Override
+    public Optional<EmployeeIngestionStatus> getStatus(String trackingId) {
+        return Optional.ofNullable(statuses.getIfPresent(trackingId));
+    }
+
+    // runs before the repository and the data source are closed, they are dependencies of this bean
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        accepting = false;
+        writer.shutdown();
+        if (!writer.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            logger.warn("Employee ingestion queue not drained within {}, {} employees are not written",
+                    shutdownTimeout, queue.size());
+            writer.shutdownNow();
+        }
+        // queued while the writer was stopping, or left when it was given up on
+        List<Pending> left = new ArrayList<>();
+        queue.drainTo(left);
+        left.forEach(pending -> record(EmployeeIngestionStatus.failed(pending.trackingId(), "Not written before shutdown")));
+    }
+
+    private void writeUntilShutdown() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        try {
+            while (true) {
+                Pending first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (!accepting) {
+                        return;
+                    }
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    // draining on shutdown does not wait for batches to fill up
+                    if (batch.size() == batchSize || remaining <= 0 || !accepting) {
+                        break;
+                    }
+                    Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                write(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            batch.forEach(pending -> record(EmployeeIngestionStatus.failed(pending.trackingId(), "Not written before shutdown")));
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        List<EmployeeIngestionStatus> results;
+        try {
+            results = transactionTemplate.execute(status -> saveBatch(batch));
+        } catch (RuntimeException e) {
+            logger.warn("Employee ingestion batch of {} failed, writing it row by row", batch.size(), e);
+            results = batch.stream().map(this::saveOne).toList();
+        }
+        results.forEach(this::record);
+    }
+
+    // same email rule as EmployeeServiceImpl.saveEmployees, but a taken or repeated email only rejects
+    // its own employee and not the batch
+    private List<EmployeeIngestionStatus> saveBatch(List<Pending> batch) {
+        Set<String> candidateEmails = new HashSet<>();
+        for (Pending pending : batch) {
+            if (pending.email() != null && employeeEmailFilter.mightContain(pending.email())) {
+                candidateEmails.add(pending.email());
+            }
+        }
+        Set<String> takenEmails = new HashSet<>();
+        if (!candidateEmails.isEmpty()) {
+            takenEmails.addAll(employeeRepository.findExistingEmails(candidateEmails));
+            employeeEmailFilter.recordFalsePositives(candidateEmails.size() - takenEmails.size());
+        }
+
+        List<EmployeeIngestionStatus> results = new ArrayList<>(batch.size());
+        List<Pending> accepted = new ArrayList<>(batch.size());
+        List<Employee> employees = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            if (pending.email() != null && !takenEmails.add(pending.email())) {
+                employeeMetrics.duplicateEmail("ingestEmployee");
+                results.add(EmployeeIngestionStatus.rejected(pending.trackingId(),
+                        "Employee already exits with given email: " + pending.email()));
+                continue;
+            }
+            accepted.add(pending);
+            employees.add(pending.toEmployee());
+        }
+
+        employeeRepository.saveAllAndFlush(employees);
+        for (int i = 0; i < employees.size(); i++) {
+            results.add(EmployeeIngestionStatus.created(accepted.get(i).trackingId(), employees.get(i).getId()));
+        }
+        employeeCache.evictAfterCommit(employees.stream().map(Employee::getId).toList());
+        employeeEmailFilter.putAfterCommit(employees.stream().map(Employee::getEmail).filter(Objects::nonNull).toList());
+        employeeSearchIndex.putAfterCommit(employees.stream().map(EmployeeView::of).toList());
+        return results;
+    }
+
+    // a fresh entity, the one of the rolled back batch may carry an id that was never inserted
+    private EmployeeIngestionStatus saveOne(Pending pending) {
+        try {
+            Employee employee = employeeService.saveEmployee(pending.toEmployee());
+            return EmployeeIngestionStatus.created(pending.trackingId(), employee.getId());
+        } catch (ResourceAlreadyExistsException e) {
+            return EmployeeIngestionStatus.rejected(pending.trackingId(), e.getMessage());
+        } catch (RuntimeException e) {
+            logger.warn("Employee ingestion of {} failed", pending.trackingId(), e);
+            return EmployeeIngestionStatus.failed(pending.trackingId(), e.getMessage());
+        }
+    }
+
+    private void record(EmployeeIngestionStatus status) {
+        statuses.put(status.trackingId(), status);
+        written.get(status.state()).increment();
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("employee.ingestion.employees")
+                .description("Employees posted for write-behind creation")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record Pending(String trackingId, String firstName, String lastName, String email) {
+
+        Employee toEmployee() {
+            return Employee.builder()
+                    .firstName(firstName)
+                    .lastName(lastName)
+                    .email(email)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package net.salla.springboottesting.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+// counts requests the service turns down, tagged with the service method only so the number of
+// series stays fixed (never ids or emails):
+//   employee.duplicate.email.rejections{operation}  creates and updates with an email that is taken
+//   employee.not.found{operation}                   lookups, updates and deletes of a missing employee
+@Component
+public class EmployeeMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    public EmployeeMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void duplicateEmail(String operation) {
+        Counter.builder("employee.duplicate.email.rejections")
+                .description("Employees rejected because their email is already taken")
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void notFound(String operation) {
+        Counter.builder("employee.not.found")
+                .description("Requests for an employee that does not exist")
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .increment();
+    }
+}
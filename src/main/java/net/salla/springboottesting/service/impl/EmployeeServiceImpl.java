@@ -1,55 +1,326 @@
 package net.salla.springboottesting.service.impl;
 
+import io.micrometer.core.annotation.Timed;
+import net.salla.springboottesting.cache.EmployeeCache;
+import net.salla.springboottesting.cache.EmployeeEmailFilter;
+import net.salla.springboottesting.dto.EmployeePage;
+import net.salla.springboottesting.dto.EmployeeView;
+import net.salla.springboottesting.exception.ResourceAlreadyExistsException;
 import net.salla.springboottesting.exception.ResourceNotFoundException;
+import net.salla.springboottesting.exception.ResourceVersionConflictException;
+import net.salla.springboottesting.jdbc.ReadYourWrites;
 import net.salla.springboottesting.model.Employee;
 import net.salla.springboottesting.repository.EmployeeRepository;
+import net.salla.springboottesting.search.EmployeeSearchIndex;
 import net.salla.springboottesting.service.EmployeeService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service  // spring crate a bean and registered this bean in application context
+@Timed("employee.service")  // one timer per method, tagged with the method and the exception thrown
 public class EmployeeServiceImpl implements EmployeeService {
 
     private EmployeeRepository employeeRepository;
 
-    public EmployeeServiceImpl(EmployeeRepository employeeRepository) {
+    private EmployeeCache employeeCache;
+
+    private EmployeeEmailFilter employeeEmailFilter;
+
+    private EmployeeBatchLoader employeeBatchLoader;
+
+    private SingleFlight singleFlight;
+
+    private EmployeeMetrics employeeMetrics;
+
+    private EmployeeSearchIndex employeeSearchIndex;
+
+    public EmployeeServiceImpl(EmployeeRepository employeeRepository, EmployeeCache employeeCache,
+                               EmployeeEmailFilter employeeEmailFilter, EmployeeBatchLoader employeeBatchLoader,
+                               SingleFlight singleFlight, EmployeeMetrics employeeMetrics,
+                               EmployeeSearchIndex employeeSearchIndex) {
         this.employeeRepository = employeeRepository;
+        this.employeeCache = employeeCache;
+        this.employeeEmailFilter = employeeEmailFilter;
+        this.employeeBatchLoader = employeeBatchLoader;
+        this.singleFlight = singleFlight;
+        this.employeeMetrics = employeeMetrics;
+        this.employeeSearchIndex = employeeSearchIndex;
     }
 
     @Override
     public Employee saveEmployee(Employee employee) {
 
-        Optional<Employee> savedEmployee = employeeRepository.findByEmail(employee.getEmail());
-        if (savedEmployee.isPresent()) {
-            throw new ResourceNotFoundException("Employee already exits with given email: " + employee.getEmail());
+        // the unique index on email decides, a select before the insert would cost a round trip and still race
+        asNew(employee);
+        try {
+            Employee savedEmployee = employeeRepository.save(employee);
+            employeeCache.put(savedEmployee);
+            employeeEmailFilter.put(savedEmployee.getEmail());
+            employeeSearchIndex.put(EmployeeView.of(savedEmployee));
+            return savedEmployee;
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateEmailOrRethrow(e, "saveEmployee", "Employee already exits with given email: " + employee.getEmail());
+        }
+    }
+
+    @Override
+    @Transactional
+    public List<Employee> saveEmployees(List<Employee> employees) {
+
+        Set<String> emails = new HashSet<>();
+        for (Employee employee : employees) {
+            if (employee.getEmail() != null && !emails.add(employee.getEmail())) {
+                employeeMetrics.duplicateEmail("saveEmployees");
+                throw new ResourceAlreadyExistsException("Employee email repeated in batch: " + employee.getEmail());
+            }
+        }
+
+        // only emails the filter can not rule out have to be looked up
+        List<String> candidateEmails = emails.stream().filter(employeeEmailFilter::mightContain).toList();
+        if (!candidateEmails.isEmpty()) {
+            List<String> existingEmails = employeeRepository.findExistingEmails(candidateEmails);
+            if (!existingEmails.isEmpty()) {
+                employeeMetrics.duplicateEmail("saveEmployees");
+                throw new ResourceAlreadyExistsException("Employees already exits with given emails: " + existingEmails);
+            }
+            employeeEmailFilter.recordFalsePositives(candidateEmails.size());
+        }
+
+        employees.forEach(EmployeeServiceImpl::asNew);
+        try {
+            List<Employee> savedEmployees = employeeRepository.saveAllAndFlush(employees);
+            employeeCache.evictAfterCommit(savedEmployees.stream().map(Employee::getId).toList());
+            employeeEmailFilter.putAfterCommit(emails);
+            employeeSearchIndex.putAfterCommit(savedEmployees.stream().map(EmployeeView::of).toList());
+            return savedEmployees;
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateEmailOrRethrow(e, "saveEmployees", "Employees already exits with given emails: " + emails);
         }
+    }
 
-        return employeeRepository.save(employee);
+    // reads that always go to the database run in a read-only transaction, spring's hibernate dialect
+    // sets FlushMode.MANUAL on the session for it so nothing is dirty checked or flushed before the query
+    @Override
+    @Transactional(readOnly = true)
+    public List<EmployeeView> getAllEmployees() {
+        return employeeRepository.findAllViews();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public EmployeePage getEmployeesAfter(long after, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+
+        // fetch one extra row to know whether there is a next page without a count query
+        List<EmployeeView> employees = employeeRepository.findViewPageAfter(after, PageRequest.of(0, pageSize + 1));
+        if (employees.size() <= pageSize) {
+            return new EmployeePage(employees, null);
+        }
+        List<EmployeeView> content = employees.subList(0, pageSize);
+        return new EmployeePage(content, content.get(pageSize - 1).id());
     }
 
+    // projections are never attached to the persistence context, so it does not grow with the table
     @Override
-    public List<Employee> getAllEmployees() {
-        return employeeRepository.findAll();
+    @Transactional(readOnly = true)
+    public void exportEmployees(Consumer<EmployeeView> consumer) {
+        try (Stream<EmployeeView> employees = employeeRepository.streamAllViews()) {
+            employees.forEach(consumer);
+        }
     }
 
     @Override
     public Optional<Employee> getEmployeeById(Long id) {
-        return employeeRepository.findById(id);
+        // a client that just wrote reads its own write from the primary, past everything shared
+        if (ReadYourWrites.isPinnedToPrimary()) {
+            Optional<Employee> employee = employeeRepository.findById(id);
+            if (employee.isEmpty()) {
+                employeeMetrics.notFound("getEmployeeById");
+            }
+            return employee;
+        }
+        Optional<Employee> employee = employeeCache.getIfPresent(id);
+        if (employee == null) {
+            // misses on the same id wait for one load (with a timeout), misses on different ids arriving
+            // together share one select through the batch loader. the cache is filled from the primary
+            // only, a lagging replica would keep an evicted row in it for the whole ttl
+            employee = singleFlight.execute("id", id, () -> employeeCache.get(id, key -> employeeBatchLoader.load(key,
+                            missingId -> ReadYourWrites.onPrimary(() -> employeeRepository.findById(missingId)),
+                            missingIds -> ReadYourWrites.onPrimary(() -> employeeRepository.findAllById(missingIds)))))
+                    .map(EmployeeServiceImpl::copy);
+        }
+        if (employee.isEmpty()) {
+            employeeMetrics.notFound("getEmployeeById");
+        }
+        return employee;
+    }
+
+    // not transactional here, the query method opens its own read-only transaction so no connection is held
+    // while waiting on the single flight. the records are immutable and can be shared between the waiters.
+    // always asks the database, the email filter only knows the emails this instance has seen
+    @Override
+    public Optional<EmployeeView> getEmployeeByEmail(String email) {
+        Optional<EmployeeView> employee;
+        if (ReadYourWrites.isPinnedToPrimary()) {
+            // not shared, a waiter would get the leading request's replica read
+            employee = employeeRepository.findViewByEmail(email);
+        } else {
+            employee = singleFlight.execute("email", email, () -> employeeRepository.findViewByEmail(email));
+        }
+        if (employee.isEmpty()) {
+            employeeMetrics.notFound("getEmployeeByEmail");
+        }
+        return employee;
+    }
+
+    @Override
+    public List<EmployeeView> searchEmployees(String query, int limit) {
+        return employeeSearchIndex.search(query, Math.min(Math.max(limit, 1), MAX_SEARCH_RESULTS));
+    }
+
+    @Override
+    public List<Employee> getEmployeesByIds(Collection<Long> ids) {
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " ids per request");
+        }
+        if (ReadYourWrites.isPinnedToPrimary()) {
+            Map<Long, Employee> employees = employeeRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Employee::getId, Function.identity()));
+            return ids.stream().distinct().map(employees::get).filter(Objects::nonNull).toList();
+        }
+        return employeeCache.getAll(ids, missingIds -> ReadYourWrites.onPrimary(() -> employeeRepository.findAllById(missingIds)));
+    }
+
+
+    @Override
+    @Transactional
+    public Optional<Employee> replaceEmployee(long id, Employee employee, Long expectedVersion) {
+
+        // without a version from the client the stored one is read, so a write in between is still detected
+        Long version = expectedVersion;
+        if (version == null) {
+            Optional<Long> currentVersion = employeeRepository.findVersionById(id);
+            if (currentVersion.isEmpty()) {
+                employeeMetrics.notFound("replaceEmployee");
+                return Optional.empty();
+            }
+            version = currentVersion.get();
+        }
+
+        int updated;
+        try {
+            updated = employeeRepository.replace(id, version, employee.getFirstName(), employee.getLastName(),
+                    employee.getEmail());
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateEmailOrRethrow(e, "replaceEmployee", "Employee already exits with given email: " + employee.getEmail());
+        }
+        if (updated == 0) {
+            if (expectedVersion != null && !employeeRepository.existsById(id)) {
+                employeeMetrics.notFound("replaceEmployee");
+                return Optional.empty();
+            }
+            throw new ResourceVersionConflictException("Employee was changed concurrently: " + id);
+        }
+
+        employeeCache.evictAfterCommit(List.of(id));
+        if (employee.getEmail() != null) {
+            employeeEmailFilter.putAfterCommit(List.of(employee.getEmail()));
+        }
+        Employee replacedEmployee = Employee.builder()
+                .id(id)
+                .firstName(employee.getFirstName())
+                .lastName(employee.getLastName())
+                .email(employee.getEmail())
+                .version(version + 1)
+                .build();
+        employeeSearchIndex.putAfterCommit(List.of(EmployeeView.of(replacedEmployee)));
+        return Optional.of(replacedEmployee);
     }
 
     @Override
-    public Employee updateEmployee(Employee employee) {
+    @Transactional
+    public void patchEmployee(long id, Employee changes, Long expectedVersion) {
+
+        int updated;
+        try {
+            updated = employeeRepository.patch(id, expectedVersion, changes.getFirstName(), changes.getLastName(),
+                    changes.getEmail());
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateEmailOrRethrow(e, "patchEmployee", "Employee already exits with given email: " + changes.getEmail());
+        }
+        if (updated == 0) {
+            // only the failure path pays for telling a missing employee from a stale version
+            if (!employeeRepository.existsById(id)) {
+                employeeMetrics.notFound("patchEmployee");
+                throw new ResourceNotFoundException("Employee not found with id: " + id);
+            }
+            throw new ResourceVersionConflictException("Employee was changed concurrently: " + id);
+        }
 
-        return employeeRepository.save(employee);
+        employeeCache.evictAfterCommit(List.of(id));
+        if (changes.getEmail() != null) {
+            employeeEmailFilter.putAfterCommit(List.of(changes.getEmail()));
+        }
+        employeeSearchIndex.patchAfterCommit(id, changes.getFirstName(), changes.getLastName(), changes.getEmail(),
+                expectedVersion != null ? expectedVersion + 1 : null);
     }
 
     @Override
+    @Transactional
     public void deleteEmployee(Long id) {
-        employeeRepository.deleteById(id);
+        if (employeeRepository.deleteEmployeeById(id) == 0) {
+            employeeMetrics.notFound("deleteEmployee");
+            throw new ResourceNotFoundException("Employee not found with id: " + id);
+        }
+        employeeCache.evictAfterCommit(List.of(id));
+        employeeEmailFilter.recordDeletions(1);
+        employeeSearchIndex.removeAfterCommit(List.of(id));
+    }
+
+    @Override
+    @Transactional
+    public int deleteEmployees(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int deleted = employeeRepository.deleteEmployeesByIds(ids);
+        employeeCache.evictAfterCommit(ids);
+        employeeEmailFilter.recordDeletions(deleted);
+        employeeSearchIndex.removeAfterCommit(ids);
+        return deleted;
+    }
+
+    // callers waiting on the same single flight lookup get the same instance, each gets its own copy
+    // creates never take the client's id or version, save would merge a non-zero id into the existing row
+    private static void asNew(Employee employee) {
+        employee.setId(0);
+        employee.setVersion(0);
     }
 
+    private static Employee copy(Employee employee) {
+        return employee.toBuilder().build();
+    }
 
+    private RuntimeException duplicateEmailOrRethrow(DataIntegrityViolationException e, String operation, String message) {
+        if (ConstraintViolations.isDuplicateEmail(e)) {
+            employeeMetrics.duplicateEmail(operation);
+            return new ResourceAlreadyExistsException(message, e);
+        }
+        return e;
+    }
 }
@@ -0,0 +1,98 @@
+package net.salla.springboottesting.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.salla.springboottesting.exception.ResourceLookupTimeoutException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// runs at most one lookup per key at a time, callers asking for a key that is already being looked
+// up wait for that lookup and get its result (or its exception) instead of running the same query.
+// waiting is bounded by the timeout, after which the caller gets a 503. when the caller running the
+// lookup is interrupted its waiters are not failed with it, one of them runs the lookup again.
+// calls are counted as employee.single.flight.calls{lookup, result=executed|deduplicated|timed.out}.
+@Component
+public class SingleFlight {
+
+    private final Map<FlightKey, CompletableFuture<Object>> flights = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final long timeoutNanos;
+
+    public SingleFlight(MeterRegistry meterRegistry,
+                        @Value("${employee.single-flight.timeout:2s}") Duration timeout) {
+        this.meterRegistry = meterRegistry;
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <V> V execute(String lookup, Object key, Supplier<V> loader) {
+        FlightKey flightKey = new FlightKey(lookup, key);
+        while (true) {
+            CompletableFuture<Object> call = new CompletableFuture<>();
+            CompletableFuture<Object> inFlight = flights.putIfAbsent(flightKey, call);
+            if (inFlight == null) {
+                return run(lookup, flightKey, call, loader);
+            }
+            counter(lookup, "deduplicated").increment();
+            try {
+                return (V) inFlight.get(timeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (CancellationException e) {
+                // the caller running the lookup was interrupted, try again (most likely running it ourselves)
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch (TimeoutException e) {
+                counter(lookup, "timed.out").increment();
+                throw new ResourceLookupTimeoutException("Timed out waiting for employee " + lookup + " lookup: " + key);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ResourceLookupTimeoutException("Interrupted waiting for employee " + lookup + " lookup: " + key, e);
+            }
+        }
+    }
+
+    private <V> V run(String lookup, FlightKey flightKey, CompletableFuture<Object> call, Supplier<V> loader) {
+        counter(lookup, "executed").increment();
+        V value;
+        try {
+            value = loader.get();
+        } catch (Throwable e) {
+            flights.remove(flightKey, call);
+            if (Thread.currentThread().isInterrupted()) {
+                call.cancel(false);
+            } else {
+                call.completeExceptionally(e);
+            }
+            throw e;
+        }
+        flights.remove(flightKey, call);
+        call.complete(value);
+        return value;
+    }
+
+    private Counter counter(String lookup, String result) {
+        return counters.computeIfAbsent(lookup + ':' + result, name -> Counter.builder("employee.single.flight.calls")
+                .tag("lookup", lookup)
+                .tag("result", result)
+                .register(meterRegistry));
+    }
+
+    private record FlightKey(String lookup, Object key) {
+    }
+}
@@ -0,0 +1,7 @@
+create table employees (
+    id bigint not null,
+    email varchar(255),
+    first_name varchar(255) not null,
+    last_name varchar(255) not null,
+    primary key (id)
+);
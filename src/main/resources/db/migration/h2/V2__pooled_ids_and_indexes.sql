@@ -0,0 +1,4 @@
+create sequence employees_seq start with 1 increment by 50;
+
+alter table employees add constraint uk_employees_email unique (email);
+create index idx_employees_name on employees (first_name, last_name);
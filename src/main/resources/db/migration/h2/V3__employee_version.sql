@@ -0,0 +1,2 @@
+-- optimistic locking, every update bumps the version and conditional updates compare it
+alter table employees add column version bigint not null default 0;
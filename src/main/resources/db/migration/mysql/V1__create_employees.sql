@@ -0,0 +1,9 @@
+-- employees table as it was created by hibernate ddl-auto before migrations were introduced,
+-- existing databases are baselined at this version and only run the later scripts
+create table employees (
+    id bigint not null auto_increment,
+    email varchar(255),
+    first_name varchar(255) not null,
+    last_name varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
@@ -0,0 +1,29 @@
+-- uk_employees_email can not be added while existing rows share an email. mysql ddl is not transactional,
+-- so the check runs first and fails the migration before anything changed, naming some of the duplicates.
+-- to fix, keep one row per email (or give the others distinct emails) and start the application again:
+--   delete e from employees e join employees kept on kept.email = e.email and kept.id < e.id;
+drop procedure if exists check_employee_emails_unique;
+DELIMITER //
+create procedure check_employee_emails_unique()
+begin
+    declare duplicates text;
+    select group_concat(email separator ', ') into duplicates
+    from (select email from employees where email is not null group by email having count(*) > 1 limit 5) d;
+    if duplicates is not null then
+        set @message = left(concat('duplicate employee emails, dedupe before V2: ', duplicates), 128);
+        signal sqlstate '45000' set message_text = @message;
+    end if;
+end //
+DELIMITER ;
+call check_employee_emails_unique();
+drop procedure check_employee_emails_unique;
+
+-- ids come from the pooled employees_seq generator (allocation size 50), mysql has no sequences
+-- so hibernate keeps the next value in a table, seeded past the ids handed out by auto_increment
+alter table employees modify id bigint not null;
+create table employees_seq (next_val bigint) engine=InnoDB;
+insert into employees_seq select coalesce(max(id), 0) + 50 from employees;
+
+-- emails are unique (also serves findByEmail), names are looked up together by the custom queries
+alter table employees add constraint uk_employees_email unique (email);
+create index idx_employees_name on employees (first_name, last_name);
@@ -0,0 +1,63 @@
+package net.salla.springboottesting.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BloomFilterTests {
+
+    //Junit test for values that were put
+    @DisplayName("Junit test for values that were put")
+    @Test
+    public void givenPutEmails_whenMightContain_thenAlwaysTrue() {
+
+        // given - precondition  or  setup
+        BloomFilter filter = new BloomFilter(10_000, 0.01, Long.MAX_VALUE);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("salla" + i + "@gmail.com");
+        }
+
+        // when - action or the behaviour that we are going to test
+        int found = 0;
+        for (int i = 0; i < 10_000; i++) {
+            found += filter.mightContain("salla" + i + "@gmail.com") ? 1 : 0;
+        }
+
+        // then - verify the output
+        assertThat(found).isEqualTo(10_000);
+    }
+
+    //Junit test for the false positive rate
+    @DisplayName("Junit test for the false positive rate")
+    @Test
+    public void givenFullFilter_whenMightContainUnknownEmails_thenStayNearConfiguredRate() {
+
+        // given - precondition  or  setup
+        BloomFilter filter = new BloomFilter(10_000, 0.01, Long.MAX_VALUE);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("salla" + i + "@gmail.com");
+        }
+
+        // when - action or the behaviour that we are going to test
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            falsePositives += filter.mightContain("shiva" + i + "@gmail.com") ? 1 : 0;
+        }
+
+        // then - verify the output
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+    }
+
+    //Junit test for the memory bound
+    @DisplayName("Junit test for the memory bound")
+    @Test
+    public void givenMaxBits_whenCreate_thenBitSizeIsCapped() {
+
+        // when - action or the behaviour that we are going to test
+        BloomFilter filter = new BloomFilter(100_000_000, 0.0001, 1 << 20);
+
+        // then - verify the output
+        assertThat(filter.bitSize()).isEqualTo(1 << 20);
+    }
+}
@@ -0,0 +1,166 @@
+package net.salla.springboottesting.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.salla.springboottesting.model.Employee;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmployeeCacheTests {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private EmployeeCache employeeCache;
+
+    private Employee employee;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        employeeCache = new EmployeeCache(100, Duration.ofMinutes(5), Duration.ZERO, meterRegistry);
+        employee = Employee.builder()
+                .id(1L)
+                .firstName("salla")
+                .lastName("mallesh")
+                .email("salla@gmail.com")
+                .build();
+    }
+
+    //Junit test for changing a cached employee
+    @DisplayName("Junit test for changing a cached employee")
+    @Test
+    public void givenCachedEmployee_whenCallerChangesIt_thenCacheKeepsOriginal() {
+
+        // given - precondition  or  setup
+        employeeCache.put(employee);
+
+        // when - action or the behaviour that we are going to test
+        employeeCache.get(1L, id -> Optional.empty()).get().setFirstName("shiva");
+        employee.setFirstName("durga");
+
+        // then - verify the output
+        assertThat(employeeCache.get(1L, id -> Optional.empty()).get().getFirstName()).isEqualTo("salla");
+    }
+
+    //Junit test for expired negative entries
+    @DisplayName("Junit test for expired negative entries")
+    @Test
+    public void givenMissingEmployeeWithZeroNegativeTtl_whenGetTwice_thenLoadTwice() {
+
+        // given - precondition  or  setup
+        AtomicInteger loads = new AtomicInteger();
+
+        // when - action or the behaviour that we are going to test
+        employeeCache.get(2L, id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+        employeeCache.get(2L, id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+
+        // then - verify the output
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    //Junit test for cache statistics
+    @DisplayName("Junit test for cache statistics")
+    @Test
+    public void givenHitAndMiss_whenReadMeters_thenCountBoth() {
+
+        // given - precondition  or  setup
+        employeeCache.put(employee);
+
+        // when - action or the behaviour that we are going to test
+        employeeCache.get(1L, id -> Optional.empty());
+        employeeCache.evictAfterCommit(List.of(1L));
+        employeeCache.get(1L, id -> Optional.of(employee));
+
+        // then - verify the output
+        assertThat(meterRegistry.get("cache.gets").tag("cache", EmployeeCache.NAME).tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", EmployeeCache.NAME).tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    //Junit test for loading several employees at once
+    @DisplayName("Junit test for loading several employees at once")
+    @Test
+    public void givenPartlyCachedIds_whenGetAll_thenLoadMissingIdsOnceAndCacheMisses() {
+
+        // given - precondition  or  setup
+        employeeCache = new EmployeeCache(100, Duration.ofMinutes(5), Duration.ofSeconds(5), new SimpleMeterRegistry());
+        Employee employee1 = employee.toBuilder().id(2L).email("kuruma@gmail.com").build();
+        employeeCache.put(employee);
+        List<List<Long>> loads = new ArrayList<>();
+
+        // when - action or the behaviour that we are going to test
+        List<Employee> employees = employeeCache.getAll(List.of(3L, 2L, 1L), ids -> {
+            loads.add(ids);
+            return List.of(employee1);
+        });
+        employeeCache.getAll(List.of(3L, 2L, 1L), ids -> {
+            loads.add(ids);
+            return List.of();
+        });
+
+        // then - verify the output
+        assertThat(employees).extracting(Employee::getId).containsExactly(2L, 1L);
+        assertThat(loads).hasSize(1);
+        assertThat(loads.get(0)).containsExactlyInAnyOrder(2L, 3L);
+    }
+
+    //Junit test for peeking into the cache
+    @DisplayName("Junit test for peeking into the cache")
+    @Test
+    public void givenCachedEmployee_whenGetIfPresent_thenCountOnlyHits() {
+
+        // given - precondition  or  setup
+        employeeCache.put(employee);
+
+        // when - action or the behaviour that we are going to test
+        Optional<Employee> cached = employeeCache.getIfPresent(1L);
+        Optional<Employee> notCached = employeeCache.getIfPresent(2L);
+
+        // then - verify the output
+        assertThat(cached).map(Employee::getEmail).contains(employee.getEmail());
+        assertThat(notCached).isNull();
+        assertThat(meterRegistry.get("cache.gets").tag("cache", EmployeeCache.NAME).tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", EmployeeCache.NAME).tag("result", "miss")
+                .functionCounter().count()).isZero();
+    }
+
+    //Junit test for an eviction while loading
+    @DisplayName("Junit test for an eviction while loading")
+    @Test
+    public void givenEvictionDuringLoad_whenGet_thenDoNotKeepLoadedEmployee() {
+
+        // given - precondition  or  setup
+        AtomicInteger loads = new AtomicInteger();
+
+        // when - action or the behaviour that we are going to test
+        employeeCache.get(1L, id -> {
+            loads.incrementAndGet();
+            employeeCache.evictAfterCommit(List.of(id));
+            return Optional.of(employee);
+        });
+        employeeCache.get(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.of(employee);
+        });
+
+        // then - verify the output
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(employeeCache.getIfPresent(1L)).isNotNull();
+    }
+}
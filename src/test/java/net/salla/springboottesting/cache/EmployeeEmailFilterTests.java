@@ -0,0 +1,69 @@
+package net.salla.springboottesting.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.salla.springboottesting.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeEmailFilterTests {
+    @Mock
+    private EmployeeRepository employeeRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private EmployeeEmailFilter employeeEmailFilter;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        employeeEmailFilter = new EmployeeEmailFilter(employeeRepository, transactionManager, meterRegistry,
+                1000, 0.01, Long.MAX_VALUE, 0.2);
+    }
+
+    //Junit test for the filter before it is built
+    @DisplayName("Junit test for the filter before it is built")
+    @Test
+    public void givenFilterNotBuilt_whenMightContain_thenReturnTrue() {
+
+        // when - action or the behaviour that we are going to test
+        boolean mightContain = employeeEmailFilter.mightContain("salla@gmail.com");
+
+        // then - verify the output
+        assertThat(mightContain).isTrue();
+    }
+
+    //Junit test for rebuilding the filter from the database
+    @DisplayName("Junit test for rebuilding the filter from the database")
+    @Test
+    public void givenEmailsInDatabase_whenRebuild_thenOnlyUnknownEmailsAreRuledOut() {
+
+        // given - precondition  or  setup
+        given(employeeRepository.count()).willReturn(1L);
+        given(employeeRepository.streamAllEmails()).willReturn(Stream.of("salla@gmail.com"));
+
+        // when - action or the behaviour that we are going to test
+        employeeEmailFilter.rebuild();
+        employeeEmailFilter.put("shiva@gmail.com");
+
+        // then - verify the output
+        assertThat(employeeEmailFilter.mightContain("salla@gmail.com")).isTrue();
+        assertThat(employeeEmailFilter.mightContain("shiva@gmail.com")).isTrue();
+        assertThat(employeeEmailFilter.mightContain("durga@gmail.com")).isFalse();
+        assertThat(meterRegistry.get("employee.email.filter.rebuilds").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("employee.email.filter.checks").tag("result", "absent").counter().count())
+                .isEqualTo(1);
+    }
+}
@@ -1,7 +1,17 @@
 package net.salla.springboottesting.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import net.salla.springboottesting.dto.EmployeeImportResult;
+import net.salla.springboottesting.dto.EmployeeIngestionStatus;
+import net.salla.springboottesting.dto.EmployeePage;
+import net.salla.springboottesting.dto.EmployeeView;
+import net.salla.springboottesting.exception.IngestionQueueFullException;
+import net.salla.springboottesting.exception.ResourceAlreadyExistsException;
+import net.salla.springboottesting.exception.ResourceNotFoundException;
+import net.salla.springboottesting.exception.ResourceVersionConflictException;
 import net.salla.springboottesting.model.Employee;
+import net.salla.springboottesting.service.EmployeeImportService;
+import net.salla.springboottesting.service.EmployeeIngestionService;
 import net.salla.springboottesting.service.EmployeeService;
 
 import org.junit.jupiter.api.DisplayName;
@@ -16,6 +26,7 @@ import org.springframework.test.web.servlet.ResultActions;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.mockito.ArgumentMatchers.*;
@@ -34,6 +45,12 @@ public class EmployeeControllerTests {
     @MockBean
     private EmployeeService employeeService;
 
+    @MockBean
+    private EmployeeImportService employeeImportService;
+
+    @MockBean
+    private EmployeeIngestionService employeeIngestionService;
+
     @Autowired
     private ObjectMapper objectMapper; // convert the object to json
 
@@ -68,15 +85,208 @@ public class EmployeeControllerTests {
 
     }
 
-    //Junit test for get all employees Rest api
-    @DisplayName("Junit test for get all employees")
+    //Junit test for save employee Rest api - write-behind
+    @DisplayName("Junit test for save employee asynchronously")
     @Test
-    public void givenListOfEmployees_whenGetAllEmployee_thenReturnListOfEmployees() throws Exception {
+    public void givenRespondAsync_whenCreateEmployee_thenReturn202WithTrackingId() throws Exception {
+
+        // given - precondition  or  setup
+        Employee employee = Employee.builder()
+                .firstName("salla")
+                .lastName("mallesh")
+                .email("salla@gmail.com")
+                .build();
+        given(employeeIngestionService.enqueue(any(Employee.class)))
+                .willReturn(EmployeeIngestionStatus.queued("abc"));
+
+        // when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(post("/api/employees")
+                .header("Prefer", "respond-async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        // then - verify the output
+        response.andDo(print())
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/employees/ingestion/abc"))
+                .andExpect(jsonPath("$.trackingId", is("abc")))
+                .andExpect(jsonPath("$.state", is("QUEUED")));
+        verify(employeeService, never()).saveEmployee(any(Employee.class));
+
+    }
+
+    //Junit test for save employee Rest api - write-behind among other preferences
+    @DisplayName("Junit test for save employee asynchronously with several preferences")
+    @Test
+    public void givenRespondAsyncAmongPreferences_whenCreateEmployee_thenReturn202() throws Exception {
+
+        // given - precondition  or  setup
+        Employee employee = Employee.builder()
+                .firstName("salla")
+                .lastName("mallesh")
+                .email("salla@gmail.com")
+                .build();
+        given(employeeIngestionService.enqueue(any(Employee.class)))
+                .willReturn(EmployeeIngestionStatus.queued("abc"));
+        given(employeeService.saveEmployee(any(Employee.class)))
+                .willAnswer((invocation) -> invocation.getArgument(0));
+
+        // when - action or the behaviour that we are going to test
+        ResultActions async = mockMvc.perform(post("/api/employees")
+                .header("Prefer", "Respond-Async, wait=5")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+        ResultActions sync = mockMvc.perform(post("/api/employees")
+                .header("Prefer", "return=minimal; x=respond-async", "wait=5")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        // then - verify the output
+        async.andDo(print())
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Preference-Applied", "respond-async"))
+                .andExpect(jsonPath("$.trackingId", is("abc")));
+        sync.andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.firstName", is("salla")));
+        verify(employeeIngestionService, times(1)).enqueue(any(Employee.class));
+        verify(employeeService, times(1)).saveEmployee(any(Employee.class));
+
+    }
+
+    //Junit test for save employee Rest api - write-behind queue full
+    @DisplayName("Junit test for save employee asynchronously with a full queue")
+    @Test
+    public void givenFullIngestionQueue_whenCreateEmployeeAsync_thenReturn429() throws Exception {
+
+        // given - precondition  or  setup
+        Employee employee = Employee.builder()
+                .firstName("salla")
+                .lastName("mallesh")
+                .email("salla@gmail.com")
+                .build();
+        given(employeeIngestionService.enqueue(any(Employee.class)))
+                .willThrow(new IngestionQueueFullException("Employee ingestion queue is full, retry later"));
+
+        // when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(post("/api/employees")
+                .header("Prefer", "respond-async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        // then - verify the output
+        response.andDo(print())
+                .andExpect(status().isTooManyRequests());
+
+    }
+
+    //Junit test for ingestion status Rest api
+    @DisplayName("Junit test for ingestion status")
+    @Test
+    public void givenTrackingId_whenGetIngestionStatus_thenReturnStatus() throws Exception {
+
+        // given - precondition  or  setup
+        given(employeeIngestionService.getStatus("abc"))
+                .willReturn(Optional.of(EmployeeIngestionStatus.created("abc", 7L)));
+        given(employeeIngestionService.getStatus("unknown")).willReturn(Optional.empty());
+
+        // when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees/ingestion/{trackingId}", "abc"));
+        ResultActions unknown = mockMvc.perform(get("/api/employees/ingestion/{trackingId}", "unknown"));
+
+        // then - verify the output
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state", is("CREATED")))
+                .andExpect(jsonPath("$.employeeId", is(7)));
+        unknown.andExpect(status().isNotFound());
+
+    }
+
+    //Junit test for save employee Rest api - duplicate email
+    @DisplayName("Junit test for save employee with duplicate email")
+    @Test
+    public void givenDuplicateEmail_whenCreateEmployee_thenReturn409() throws Exception {
+
+        // given - precondition  or  setup
+        Employee employee = Employee.builder()
+                .firstName("salla")
+                .lastName("mallesh")
+                .email("salla@gmail.com")
+                .build();
+        given(employeeService.saveEmployee(any(Employee.class)))
+                .willThrow(new ResourceAlreadyExistsException("Employee already exits with given email: " + employee.getEmail()));
+
+        // when - action or the behaviour that we are going to test
+        ResultActions responce = mockMvc.perform(post("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        // then - verify the result or output using assert statement
+        responce.andDo(print())
+                .andExpect(status().isConflict());
+
+    }
+
+    //Junit test for save employees in batch Rest api
+    @DisplayName("Junit test for save employees in batch")
+    @Test
+    public void givenListOfEmployees_whenCreateEmployees_thenReturnSavedEmployees() throws Exception {
 
         // given - precondition  or  setup
         List<Employee> listOfEmployees = new ArrayList<>();
         listOfEmployees.add(Employee.builder().firstName("salla").lastName("mallesh").email("salla@gmail.com").build());
         listOfEmployees.add(Employee.builder().firstName("shiva").lastName("shakti").email("shiva@gmail.com").build());
+        given(employeeService.saveEmployees(anyList()))
+                .willAnswer((invocation -> invocation.getArgument(0)));
+
+        // when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(post("/api/employees/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(listOfEmployees)));
+
+        // then - verify the result or output using assert statement
+        response.andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.size()", is(listOfEmployees.size())))
+                .andExpect(jsonPath("$[1].email", is("shiva@gmail.com")));
+
+    }
+
+    //Junit test for import employees from csv Rest api
+    @DisplayName("Junit test for import employees from csv")
+    @Test
+    public void givenCsvBody_whenImportEmployees_thenReturnImportResult() throws Exception {
+
+        // given - precondition  or  setup
+        EmployeeImportResult result = new EmployeeImportResult();
+        result.addProcessed();
+        result.addImported(1);
+        given(employeeImportService.importCsv(any())).willReturn(result);
+
+        // when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(post("/api/employees/import")
+                .contentType("text/csv")
+                .content("firstName,lastName,email\nsalla,mallesh,salla@gmail.com\n"));
+
+        // then - verify the result or output using assert statement
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.processed", is(1)))
+                .andExpect(jsonPath("$.imported", is(1)))
+                .andExpect(jsonPath("$.failed", is(0)));
+
+    }
+
+    //Junit test for get all employees Rest api
+    @DisplayName("Junit test for get all employees")
+    @Test
+    public void givenListOfEmployees_whenGetAllEmployee_thenReturnListOfEmployees() throws Exception {
+
+        // given - precondition  or  setup
+        List<EmployeeView> listOfEmployees = new ArrayList<>();
+        listOfEmployees.add(new EmployeeView(1L, "salla", "mallesh", "salla@gmail.com", 0L));
+        listOfEmployees.add(new EmployeeView(2L, "shiva", "shakti", "shiva@gmail.com", 0L));
 
         given(employeeService.getAllEmployees()).willReturn(listOfEmployees);
 
@@ -92,6 +302,113 @@ public class EmployeeControllerTests {
 
     }
 
+    //Junit test for get employees page Rest api
+    @DisplayName("Junit test for get employees page")
+    @Test
+    public void givenCursorAndLimit_whenGetEmployeePage_thenReturnPageAndNextCursor() throws Exception {
+
+        // given - precondition  or  setup
+        List<EmployeeView> listOfEmployees = new ArrayList<>();
+        listOfEmployees.add(new EmployeeView(11L, "salla", "mallesh", "salla@gmail.com", 0L));
+        listOfEmployees.add(new EmployeeView(12L, "shiva", "shakti", "shiva@gmail.com", 0L));
+
+        given(employeeService.getEmployeesAfter(10L, 2)).willReturn(new EmployeePage(listOfEmployees, 12L));
+
+        // when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .param("after", "10")
+                .param("limit", "2"));
+
+        // then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.content.size()", is(listOfEmployees.size())))
+                .andExpect(jsonPath("$.nextCursor", is(12)));
+
+    }
+
+    //Junit test for get employees page Rest api with an etag of the full last page
+    @DisplayName("Junit test for get employees page with an etag of the full last page")
+    @Test
+    public void givenETagOfFullLastPage_whenRowsAddedAfterIt_thenReturnPageWithNextCursor() throws Exception {
+
+        // given - precondition  or  setup
+        List<EmployeeView> listOfEmployees = new ArrayList<>();
+        listOfEmployees.add(new EmployeeView(11L, "salla", "mallesh", "salla@gmail.com", 0L));
+        listOfEmployees.add(new EmployeeView(12L, "shiva", "shakti", "shiva@gmail.com", 0L));
+        given(employeeService.getEmployeesAfter(10L, 2))
+                .willReturn(new EmployeePage(listOfEmployees, null))
+                .willReturn(new EmployeePage(listOfEmployees, 12L));
+        String eTag = mockMvc.perform(get("/api/employees")
+                        .param("after", "10")
+                        .param("limit", "2"))
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .param("after", "10")
+                .param("limit", "2")
+                .header("If-None-Match", eTag));
+
+        // then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.nextCursor", is(12)));
+
+    }
+
+    //Junit test for search employees Rest api
+    @DisplayName("Junit test for search employees")
+    @Test
+    public void givenQuery_whenSearchEmployees_thenReturnMatches() throws Exception {
+
+        // given - precondition  or  setup
+        List<EmployeeView> listOfEmployees = List.of(new EmployeeView(1L, "salla", "mallesh", "salla@gmail.com", 0L));
+        given(employeeService.searchEmployees("sal", 5)).willReturn(listOfEmployees);
+
+        // when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees/search")
+                .param("q", "sal")
+                .param("limit", "5"));
+
+        // then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.size()", is(1)))
+                .andExpect(jsonPath("$[0].email", is("salla@gmail.com")));
+
+    }
+
+    //Junit test for export employees Rest api
+    @DisplayName("Junit test for export employees as ndjson")
+    @Test
+    public void givenListOfEmployees_whenExportEmployees_thenReturnOneJsonObjectPerLine() throws Exception {
+
+        // given - precondition  or  setup
+        List<Employee> listOfEmployees = new ArrayList<>();
+        listOfEmployees.add(Employee.builder().id(1L).firstName("salla").lastName("mallesh").email("salla@gmail.com").build());
+        listOfEmployees.add(Employee.builder().id(2L).firstName("shiva").lastName("shakti").email("shiva@gmail.com").build());
+
+        // the projections have to be written exactly like the entities were
+        willAnswer(invocation -> {
+            Consumer<EmployeeView> consumer = invocation.getArgument(0);
+            listOfEmployees.forEach(employee -> consumer.accept(new EmployeeView(employee.getId(),
+                    employee.getFirstName(), employee.getLastName(), employee.getEmail(), employee.getVersion())));
+            return null;
+        }).given(employeeService).exportEmployees(any());
+
+        // when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees/export"));
+
+        // then - verify the output
+        response.andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(objectMapper.writeValueAsString(listOfEmployees.get(0)) + "\n"
+                        + objectMapper.writeValueAsString(listOfEmployees.get(1)) + "\n"));
+
+    }
+
     //Junit test for get employee by id Rest api
         @DisplayName("Junit test for get employee by id")
         @Test
@@ -119,6 +436,93 @@ public class EmployeeControllerTests {
         }
 
 
+    //Junit test for get employees by ids Rest api
+    @DisplayName("Junit test for get employees by ids")
+    @Test
+    public void givenEmployeeIds_whenGetEmployeesByIds_thenReturnEmployeesList() throws Exception {
+
+        // given - precondition  or  setup
+        List<Employee> listOfEmployees = new ArrayList<>();
+        listOfEmployees.add(Employee.builder().id(1L).firstName("salla").lastName("mallesh").email("salla@gmail.com").build());
+        listOfEmployees.add(Employee.builder().id(3L).firstName("suresh").lastName("kuruma").email("kuruma@gmail.com").build());
+        given(employeeService.getEmployeesByIds(List.of(1L, 2L, 3L))).willReturn(listOfEmployees);
+
+        // when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees").param("ids", "1,2,3"));
+
+        // then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.size()", is(listOfEmployees.size())))
+                .andExpect(jsonPath("$[1].id", is(3)));
+
+    }
+
+    //Junit test for get employee by email Rest api
+    @DisplayName("Junit test for get employee by email")
+    @Test
+    public void givenEmployeeEmail_whenGetEmployeeByEmail_thenReturnEmployeeObject() throws Exception {
+
+        // given - precondition  or  setup
+        Employee employee = Employee.builder()
+                .id(1L)
+                .firstName("salla")
+                .lastName("mallesh")
+                .email("salla@gmail.com")
+                .build();
+        given(employeeService.getEmployeeByEmail(employee.getEmail())).willReturn(Optional.of(new EmployeeView(
+                employee.getId(), employee.getFirstName(), employee.getLastName(), employee.getEmail(), 3L)));
+        given(employeeService.getEmployeeByEmail("nobody@gmail.com")).willReturn(Optional.empty());
+
+        // when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees").param("email", employee.getEmail()));
+        ResultActions missingResponse = mockMvc.perform(get("/api/employees").param("email", "nobody@gmail.com"));
+
+        // then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.email", is(employee.getEmail())))
+                .andExpect(header().string("ETag", "\"1-3\""));
+        missingResponse.andExpect(status().isNotFound());
+
+    }
+
+    //Junit test for get employee by id Rest api with a matching etag
+    @DisplayName("Junit test for get employee by id not modified")
+    @Test
+    public void givenMatchingETag_whenGetEmployeeById_thenReturn304() throws Exception {
+
+        // given - precondition  or  setup
+        long employeeId = 1L;
+        Employee employee = Employee.builder()
+                .id(employeeId)
+                .firstName("salla")
+                .lastName("mallesh")
+                .email("salla@gmail.com")
+                .build();
+        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(employee));
+        String eTag = mockMvc.perform(get("/api/employees/{id}", employeeId))
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees/{id}", employeeId)
+                .header("If-None-Match", eTag));
+
+        // then - verify the output
+        response.andExpect(status().isNotModified())
+                .andDo(print())
+                .andExpect(content().string(""));
+
+        // a changed employee gets a new etag
+        employee.setEmail("mallesh@gmail.com");
+        employee.setVersion(1L);
+        mockMvc.perform(get("/api/employees/{id}", employeeId)
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isOk());
+    }
+
     // Invalid scenario - Invalid employee Id
     //Junit test for get employee by id Rest api
     @DisplayName("Junit test for get employee by id negative scenario")
@@ -154,9 +558,8 @@ public class EmployeeControllerTests {
                     .lastName("Gudeti")
                     .email("shiva@gmail.com")
                     .build();
-            given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(savedEmployee));
-            given(employeeService.updateEmployee(any(Employee.class)))
-                    .willAnswer(invocation -> invocation.getArgument(0));
+            given(employeeService.replaceEmployee(eq(employeeId), any(Employee.class), isNull()))
+                    .willAnswer(invocation -> Optional.of(invocation.getArgument(1)));
 
             // when - action or the behaviour that we are going to test
             ResultActions response =  mockMvc.perform(put("/api/employees/{id}",employeeId)
@@ -190,9 +593,8 @@ public class EmployeeControllerTests {
                 .lastName("Gudeti")
                 .email("shiva@gmail.com")
                 .build();
-        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.empty());
-        given(employeeService.updateEmployee(any(Employee.class)))
-                .willAnswer(invocation -> invocation.getArgument(0));
+        given(employeeService.replaceEmployee(eq(employeeId), any(Employee.class), isNull()))
+                .willReturn(Optional.empty());
 
         // when - action or the behaviour that we are going to test
         ResultActions response =  mockMvc.perform(put("/api/employees/{id}",employeeId)
@@ -206,6 +608,73 @@ public class EmployeeControllerTests {
 
     }
 
+    //Junit test for update employee Rest api - stale version
+    @Test
+    public void givenStaleIfMatch_whenUpdateEmployee_thenReturn409() throws Exception {
+
+        // given - precondition  or  setup
+        long employeeId = 1L;
+        Employee updateEmployee = Employee.builder()
+                .firstName("shiva")
+                .lastName("Gudeti")
+                .email("shiva@gmail.com")
+                .build();
+        given(employeeService.replaceEmployee(eq(employeeId), any(Employee.class), eq(3L)))
+                .willThrow(new ResourceVersionConflictException("Employee was changed concurrently: " + employeeId));
+
+        // when - action or the behaviour that we are going to test
+        ResultActions response =  mockMvc.perform(put("/api/employees/{id}",employeeId)
+                .header("If-Match", "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updateEmployee)));
+
+        // then - verify the output
+        response.andDo(print())
+                .andExpect(status().isConflict());
+
+    }
+
+    //Junit test for patch employee Rest api
+    @Test
+    public void givenIfMatch_whenPatchEmployee_thenReturn204WithNextETag() throws Exception {
+
+        // given - precondition  or  setup
+        long employeeId = 1L;
+        willDoNothing().given(employeeService).patchEmployee(eq(employeeId), any(Employee.class), eq(3L));
+
+        // when - action or the behaviour that we are going to test
+        ResultActions response =  mockMvc.perform(patch("/api/employees/{id}",employeeId)
+                .header("If-Match", "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"shiva@gmail.com\"}"));
+
+        // then - verify the output
+        response.andDo(print())
+                .andExpect(status().isNoContent())
+                .andExpect(header().string("ETag", "\"4\""));
+
+    }
+
+    //Junit test for patch employee Rest api - missing employee
+    @Test
+    public void givenMissingEmployee_whenPatchEmployee_thenReturn404() throws Exception {
+
+        // given - precondition  or  setup
+        long employeeId = 5L;
+        willThrow(new ResourceNotFoundException("Employee not found with id: " + employeeId))
+                .given(employeeService).patchEmployee(eq(employeeId), any(Employee.class), isNull());
+
+        // when - action or the behaviour that we are going to test
+        ResultActions response =  mockMvc.perform(patch("/api/employees/{id}",employeeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"shiva@gmail.com\"}"));
+
+        // then - verify the output
+        response.andDo(print())
+                .andExpect(status().isNotFound());
+
+    }
+
     //Junit test for delete employee Rest api
         @Test
         public void givenEmployeeId_whenDeleteEmployee_thenReturn200() throws Exception {
@@ -223,4 +692,39 @@ public class EmployeeControllerTests {
 
         }
 
+    //Junit test for delete employee Rest api - missing employee
+    @Test
+    public void givenMissingEmployeeId_whenDeleteEmployee_thenReturn404() throws Exception {
+
+        // given - precondition  or  setup
+        long employeeId = 5L;
+        willThrow(new ResourceNotFoundException("Employee not found with id: " + employeeId))
+                .given(employeeService).deleteEmployee(employeeId);
+
+        // when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(delete("/api/employees/{id}",employeeId));
+
+        // then - verify the output
+        response.andExpect(status().isNotFound())
+                .andDo(print());
+
+    }
+
+    //Junit test for bulk delete employees Rest api
+    @Test
+    public void givenEmployeeIds_whenDeleteEmployees_thenReturnDeletedCount() throws Exception {
+
+        // given - precondition  or  setup
+        given(employeeService.deleteEmployees(List.of(1L, 2L, 3L))).willReturn(3);
+
+        // when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(delete("/api/employees").param("ids", "1,2,3"));
+
+        // then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(content().string("3 employees deleted successfully!"));
+
+    }
+
 }
@@ -0,0 +1,213 @@
+package net.salla.springboottesting.controller;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IdempotencyFilterTests {
+
+    private IdempotencyFilter idempotencyFilter;
+
+    // stands in for the controller: creates employee number n and echoes the body it read
+    private final AtomicInteger created = new AtomicInteger();
+    private volatile int status = HttpServletResponse.SC_CREATED;
+    private volatile CountDownLatch release = new CountDownLatch(0);
+    private final HttpServlet servlet = new HttpServlet() {
+        @Override
+        protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            int id = created.incrementAndGet();
+            if (status == HttpServletResponse.SC_CONFLICT) {
+                response.sendError(status, "Employee already exits with given email");
+                return;
+            }
+            response.setStatus(status);
+            response.setContentType("application/json");
+            response.setHeader("Location", "/api/employees/" + id);
+            response.getWriter().write("{\"id\":" + id + ",\"body\":" + new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8) + "}");
+        }
+    };
+
+    @BeforeEach
+    public void setup() {
+        idempotencyFilter = new IdempotencyFilter(Duration.ofMinutes(1), 1024 * 1024, 1024, Duration.ofSeconds(10),
+                new SimpleMeterRegistry());
+    }
+
+    //Junit test for replaying a request with the same idempotency key
+    @DisplayName("Junit test for replaying a request with the same idempotency key")
+    @Test
+    public void givenSameKey_whenPostedTwice_thenSecondIsReplayedWithoutRunningAgain() throws Exception {
+
+        // given - precondition  or  setup
+        MockHttpServletResponse first = post("key-1", "{\"firstName\":\"salla\"}");
+
+        // when - action or the behaviour that we are going to test
+        MockHttpServletResponse retry = post("key-1", "{\"firstName\":\"salla\"}");
+        MockHttpServletResponse otherKey = post("key-2", "{\"firstName\":\"salla\"}");
+
+        // then - verify the output
+        assertThat(created).hasValue(2);
+        assertThat(first.getStatus()).isEqualTo(201);
+        assertThat(first.getContentAsString()).isEqualTo("{\"id\":1,\"body\":{\"firstName\":\"salla\"}}");
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getContentAsString()).isEqualTo(first.getContentAsString());
+        assertThat(retry.getHeader("Location")).isEqualTo("/api/employees/1");
+        assertThat(retry.getContentType()).isEqualTo("application/json");
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(otherKey.getContentAsString()).startsWith("{\"id\":2");
+    }
+
+    //Junit test for reusing an idempotency key with another body
+    @DisplayName("Junit test for reusing an idempotency key with another body")
+    @Test
+    public void givenSameKeyAndOtherBody_whenPosted_thenReturn422() throws Exception {
+
+        // given - precondition  or  setup
+        post("key-1", "{\"firstName\":\"salla\"}");
+
+        // when - action or the behaviour that we are going to test
+        MockHttpServletResponse response = post("key-1", "{\"firstName\":\"shiva\"}");
+
+        // then - verify the output
+        assertThat(response.getStatus()).isEqualTo(422);
+        assertThat(created).hasValue(1);
+    }
+
+    //Junit test for a duplicate arriving while the first request runs
+    @DisplayName("Junit test for a duplicate arriving while the first request runs")
+    @Test
+    public void givenFirstRequestRunning_whenDuplicatePosted_thenItWaitsAndIsReplayed() throws Exception {
+
+        // given - precondition  or  setup
+        release = new CountDownLatch(1);
+        CompletableFuture<MockHttpServletResponse> first = CompletableFuture.supplyAsync(() -> post("key-1", "{}"));
+        CompletableFuture<MockHttpServletResponse> duplicate = CompletableFuture.supplyAsync(() -> post("key-1", "{}"));
+
+        // when - action or the behaviour that we are going to test
+        Thread.sleep(200);
+        release.countDown();
+
+        // then - verify the output
+        assertThat(first.get(10, TimeUnit.SECONDS).getContentAsString()).isEqualTo("{\"id\":1,\"body\":{}}");
+        assertThat(duplicate.get(10, TimeUnit.SECONDS).getContentAsString()).isEqualTo("{\"id\":1,\"body\":{}}");
+        assertThat(created).hasValue(1);
+    }
+
+    //Junit test for retrying after a server error
+    @DisplayName("Junit test for retrying after a server error")
+    @Test
+    public void givenServerError_whenRetried_thenRunsAgain() throws Exception {
+
+        // given - precondition  or  setup
+        status = HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+        post("key-1", "{}");
+        status = HttpServletResponse.SC_CREATED;
+
+        // when - action or the behaviour that we are going to test
+        MockHttpServletResponse retry = post("key-1", "{}");
+
+        // then - verify the output
+        assertThat(created).hasValue(2);
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+    }
+
+    //Junit test for replaying an error response
+    @DisplayName("Junit test for replaying an error response")
+    @Test
+    public void givenConflict_whenRetried_thenConflictIsReplayed() throws Exception {
+
+        // given - precondition  or  setup
+        status = HttpServletResponse.SC_CONFLICT;
+        post("key-1", "{}");
+
+        // when - action or the behaviour that we are going to test
+        MockHttpServletResponse retry = post("key-1", "{}");
+
+        // then - verify the output
+        assertThat(created).hasValue(1);
+        assertThat(retry.getStatus()).isEqualTo(409);
+        assertThat(retry.getErrorMessage()).isEqualTo("Employee already exits with given email");
+    }
+
+    //Junit test for reading the body with a read listener
+    @DisplayName("Junit test for reading the body with a read listener")
+    @Test
+    public void givenReadListener_whenBodyRead_thenDataAvailableThenAllDataRead() throws Exception {
+
+        // given - precondition  or  setup
+        List<String> events = new ArrayList<>();
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/employees");
+        request.addHeader(IdempotencyFilter.HEADER, "key-1");
+        request.setContent("{}".getBytes(StandardCharsets.UTF_8));
+        HttpServlet asyncServlet = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                ServletInputStream input = request.getInputStream();
+                input.setReadListener(new ReadListener() {
+                    @Override
+                    public void onDataAvailable() throws IOException {
+                        events.add("available " + new String(input.readAllBytes(), StandardCharsets.UTF_8));
+                    }
+
+                    @Override
+                    public void onAllDataRead() {
+                        events.add("all read " + input.isFinished());
+                    }
+
+                    @Override
+                    public void onError(Throwable throwable) {
+                        events.add("error");
+                    }
+                });
+                response.setStatus(HttpServletResponse.SC_CREATED);
+            }
+        };
+
+        // when - action or the behaviour that we are going to test
+        idempotencyFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(asyncServlet));
+
+        // then - verify the output
+        assertThat(events).containsExactly("available {}", "all read true");
+    }
+
+    private MockHttpServletResponse post(String idempotencyKey, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/employees");
+        request.addHeader(IdempotencyFilter.HEADER, idempotencyKey);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            idempotencyFilter.doFilter(request, response, new MockFilterChain(servlet));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return response;
+    }
+}
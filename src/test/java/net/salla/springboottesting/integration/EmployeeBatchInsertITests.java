@@ -0,0 +1,128 @@
+package net.salla.springboottesting.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.salla.springboottesting.jdbc.SqlStatementCounter;
+import net.salla.springboottesting.jdbc.SqlStatistics;
+import net.salla.springboottesting.model.Employee;
+import net.salla.springboottesting.repository.EmployeeRepository;
+import net.salla.springboottesting.service.EmployeeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// compares the round trips of the per-row create path with the batched one on the embedded database,
+// every statement is counted as it reaches the driver (the timings are in EmployeeServiceBenchmark),
+// and checks that a create never writes over an existing row
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+public class EmployeeBatchInsertITests {
+
+    private static final int ROWS = 500;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size}")
+    private int jdbcBatchSize;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private SqlStatistics sqlStatistics;
+
+    @BeforeEach
+    void setup() {
+        employeeRepository.deleteAllInBatch();
+    }
+
+    //Junit test for comparing per-row and batched inserts
+    @DisplayName("Junit test for comparing per-row and batched inserts")
+    @Test
+    public void givenManyEmployees_whenSaveOneByOneAndInBatch_thenBatchSendsOneInsertPerJdbcBatch() {
+
+        // given - precondition  or  setup
+        List<Employee> singleEmployees = employees("single", ROWS);
+        List<Employee> batchEmployees = employees("batch", ROWS);
+
+        // when - action or the behaviour that we are going to test
+        SqlStatementCounter sqlStatementCounter = SqlStatementCounter.start(sqlStatistics);
+        singleEmployees.forEach(employeeService::saveEmployee);
+        SqlStatementCounter.SqlStatementCounts single = sqlStatementCounter.counts();
+
+        sqlStatementCounter = SqlStatementCounter.start(sqlStatistics);
+        employeeService.saveEmployees(batchEmployees);
+        SqlStatementCounter.SqlStatementCounts batch = sqlStatementCounter.counts();
+
+        // then - verify the output
+        assertThat(employeeRepository.count()).isEqualTo(2L * ROWS);
+        assertThat(single.inserts()).isEqualTo(ROWS);
+        assertThat(batch.inserts()).isEqualTo((ROWS + jdbcBatchSize - 1) / jdbcBatchSize);
+    }
+
+    //Junit test for a batch create carrying the id of an existing employee
+    @DisplayName("Junit test for a batch create carrying the id of an existing employee")
+    @Test
+    public void givenExistingEmployeeId_whenCreateEmployeesWithThatId_thenExistingRowUnchanged() throws Exception {
+
+        // given - precondition  or  setup
+        Employee existing = employeeService.saveEmployee(employees("salla", 1).get(0));
+        Employee sameId = Employee.builder()
+                .id(existing.getId())
+                .version(existing.getVersion())
+                .firstName("shiva")
+                .lastName("gudeti")
+                .email("shiva@gmail.com")
+                .build();
+
+        // when - action or the behaviour that we are going to test
+        mockMvc.perform(post("/api/employees/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(sameId))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$[0].id", not((int) existing.getId())));
+
+        // then - verify the output
+        assertThat(employeeRepository.count()).isEqualTo(2);
+        assertThat(employeeRepository.findById(existing.getId())).hasValueSatisfying(employee -> {
+            assertThat(employee.getFirstName()).isEqualTo("salla0");
+            assertThat(employee.getEmail()).isEqualTo("salla0@gmail.com");
+            assertThat(employee.getVersion()).isEqualTo(existing.getVersion());
+        });
+    }
+
+    private static List<Employee> employees(String prefix, int count) {
+        List<Employee> employees = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            employees.add(Employee.builder()
+                    .firstName(prefix + i)
+                    .lastName("mallesh")
+                    .email(prefix + i + "@gmail.com")
+                    .build());
+        }
+        return employees;
+    }
+}
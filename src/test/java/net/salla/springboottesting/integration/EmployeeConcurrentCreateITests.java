@@ -0,0 +1,82 @@
+package net.salla.springboottesting.integration;
+
+import net.salla.springboottesting.exception.ResourceAlreadyExistsException;
+import net.salla.springboottesting.model.Employee;
+import net.salla.springboottesting.repository.EmployeeRepository;
+import net.salla.springboottesting.service.EmployeeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+public class EmployeeConcurrentCreateITests {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @BeforeEach
+    void setup() {
+        employeeRepository.deleteAllInBatch();
+    }
+
+    //Junit test for concurrent saves with the same email
+    @DisplayName("Junit test for concurrent saves with the same email")
+    @Test
+    public void givenSameEmail_whenSaveEmployeeConcurrently_thenOnlyOneIsSaved() throws Exception {
+
+        // given - precondition  or  setup
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger saved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        // when - action or the behaviour that we are going to test
+        for (int i = 0; i < THREADS; i++) {
+            String firstName = "salla" + i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    employeeService.saveEmployee(Employee.builder()
+                            .firstName(firstName)
+                            .lastName("mallesh")
+                            .email("salla@gmail.com")
+                            .build());
+                    saved.incrementAndGet();
+                } catch (ResourceAlreadyExistsException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // then - verify the output
+        assertThat(saved.get()).isEqualTo(1);
+        assertThat(rejected.get()).isEqualTo(THREADS - 1);
+        assertThat(employeeRepository.count()).isEqualTo(1);
+    }
+}
@@ -1,6 +1,9 @@
 package net.salla.springboottesting.integration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import net.salla.springboottesting.cache.EmployeeCache;
+import net.salla.springboottesting.jdbc.SqlStatementCounter;
+import net.salla.springboottesting.jdbc.SqlStatistics;
 import net.salla.springboottesting.model.Employee;
 import net.salla.springboottesting.repository.EmployeeRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,6 +20,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
@@ -39,9 +43,16 @@ public class EmployeeControllerITests {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private EmployeeCache employeeCache;
+
+    @Autowired
+    private SqlStatistics sqlStatistics;
+
     @BeforeEach
     void setup(){
         employeeRepository.deleteAll();
+        employeeCache.clear(); // rows deleted through the repository are not evicted from the cache
     }
     //Junit test for save employee Rest api
     @DisplayName("Junit test for save employee")
@@ -56,7 +67,7 @@ public class EmployeeControllerITests {
                 .build();
 
         // when - action or the behaviour that we are going to test
-
+        SqlStatementCounter sqlStatementCounter = SqlStatementCounter.start(sqlStatistics);
         ResultActions responce = mockMvc.perform(post("/api/employees")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(employee)));
@@ -70,6 +81,9 @@ public class EmployeeControllerITests {
                         is(employee.getLastName())))
                 .andExpect(jsonPath("$.email",
                         is(employee.getEmail())));
+        // the insert, and a sequence select once every 50 ids
+        assertThat(sqlStatementCounter.counts().inserts()).isEqualTo(1);
+        assertThat(sqlStatementCounter.counts().total()).isLessThanOrEqualTo(2);
 
     }
 
@@ -111,6 +125,7 @@ public class EmployeeControllerITests {
        employeeRepository.save(employee);
 
         // when - action or the behaviour that we are going to test
+        SqlStatementCounter sqlStatementCounter = SqlStatementCounter.start(sqlStatistics);
         ResultActions response = mockMvc.perform(get("/api/employees/{id}",employee.getId()));
 
         // then - verify the output
@@ -119,6 +134,8 @@ public class EmployeeControllerITests {
                 .andExpect(jsonPath("$.firstName",is(employee.getFirstName())))
                 .andExpect(jsonPath("$.lastName",is(employee.getLastName())))
                 .andExpect(jsonPath("$.email",is(employee.getEmail())));
+        assertThat(sqlStatementCounter.counts().selects()).isEqualTo(1);
+        assertThat(sqlStatementCounter.counts().total()).isEqualTo(1);
 
     }
 
@@ -166,6 +183,7 @@ public class EmployeeControllerITests {
 
 
         // when - action or the behaviour that we are going to test
+        SqlStatementCounter sqlStatementCounter = SqlStatementCounter.start(sqlStatistics);
         ResultActions response =  mockMvc.perform(put("/api/employees/{id}",savedEmployee.getId())
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(updateEmployee)));
@@ -177,6 +195,9 @@ public class EmployeeControllerITests {
                 .andExpect(jsonPath("$.firstName",is(updateEmployee.getFirstName())))
                 .andExpect(jsonPath("$.lastName",is(updateEmployee.getLastName())))
                 .andExpect(jsonPath("$.email",is(updateEmployee.getEmail())));
+        // the current version and one conditional update
+        assertThat(sqlStatementCounter.counts().updates()).isEqualTo(1);
+        assertThat(sqlStatementCounter.counts().total()).isLessThanOrEqualTo(2);
 
     }
 
@@ -226,11 +247,14 @@ public class EmployeeControllerITests {
         employeeRepository.save(savedEmployee);
 
         // when - action or the behaviour that we are going to test
+        SqlStatementCounter sqlStatementCounter = SqlStatementCounter.start(sqlStatistics);
         ResultActions response = mockMvc.perform(delete("/api/employees/{id}",savedEmployee.getId()));
 
         // then - verify the output
         response.andExpect(status().isOk())
                 .andDo(print());
+        assertThat(sqlStatementCounter.counts().deletes()).isEqualTo(1);
+        assertThat(sqlStatementCounter.counts().total()).isEqualTo(1);
 
     }
 }
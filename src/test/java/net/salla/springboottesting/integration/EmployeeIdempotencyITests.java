@@ -0,0 +1,110 @@
+package net.salla.springboottesting.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.salla.springboottesting.controller.IdempotencyFilter;
+import net.salla.springboottesting.jdbc.SqlStatementCounter;
+import net.salla.springboottesting.jdbc.SqlStatistics;
+import net.salla.springboottesting.model.Employee;
+import net.salla.springboottesting.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// a client retrying a create with the same Idempotency-Key on the embedded database. stored responses
+// outlive a test (the context is shared), so every test uses keys of its own
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+public class EmployeeIdempotencyITests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private SqlStatistics sqlStatistics;
+
+    @BeforeEach
+    void setup() {
+        employeeRepository.deleteAllInBatch();
+    }
+
+    //Junit test for retrying a create with the same idempotency key
+    @DisplayName("Junit test for retrying a create with the same idempotency key")
+    @Test
+    public void givenCreatedEmployee_whenRetriedWithSameKey_thenReplayedWithoutQueries() throws Exception {
+
+        // given - precondition  or  setup
+        String employee = objectMapper.writeValueAsString(Employee.builder()
+                .firstName("salla")
+                .lastName("mallesh")
+                .email("salla@gmail.com")
+                .build());
+        MvcResult first = mockMvc.perform(post("/api/employees")
+                        .header(IdempotencyFilter.HEADER, "create-salla")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(employee))
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        // when - action or the behaviour that we are going to test
+        SqlStatementCounter sqlStatementCounter = SqlStatementCounter.start(sqlStatistics);
+        MvcResult retry = mockMvc.perform(post("/api/employees")
+                        .header(IdempotencyFilter.HEADER, "create-salla")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(employee))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+                .andReturn();
+        SqlStatementCounter.SqlStatementCounts counts = sqlStatementCounter.counts();
+
+        // then - verify the output
+        assertThat(retry.getResponse().getContentAsString()).isEqualTo(first.getResponse().getContentAsString());
+        assertThat(counts.selects() + counts.inserts() + counts.updates() + counts.deletes() + counts.others()).isZero();
+        assertThat(employeeRepository.count()).isEqualTo(1);
+    }
+
+    //Junit test for a new idempotency key with a taken email
+    @DisplayName("Junit test for a new idempotency key with a taken email")
+    @Test
+    public void givenCreatedEmployee_whenPostedWithAnotherKey_thenRunsAgainAndConflicts() throws Exception {
+
+        // given - precondition  or  setup
+        String employee = objectMapper.writeValueAsString(Employee.builder()
+                .firstName("salla")
+                .lastName("mallesh")
+                .email("salla@gmail.com")
+                .build());
+        mockMvc.perform(post("/api/employees")
+                        .header(IdempotencyFilter.HEADER, "create-salla-first")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(employee))
+                .andExpect(status().isCreated());
+
+        // when - action or the behaviour that we are going to test
+        // then - verify the output
+        mockMvc.perform(post("/api/employees")
+                        .header(IdempotencyFilter.HEADER, "create-salla-second")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(employee))
+                .andExpect(status().isConflict());
+        assertThat(employeeRepository.count()).isEqualTo(1);
+    }
+}
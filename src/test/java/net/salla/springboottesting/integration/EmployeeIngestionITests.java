@@ -0,0 +1,147 @@
+package net.salla.springboottesting.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.salla.springboottesting.dto.EmployeeIngestionStatus;
+import net.salla.springboottesting.jdbc.SqlStatementCounter;
+import net.salla.springboottesting.jdbc.SqlStatistics;
+import net.salla.springboottesting.model.Employee;
+import net.salla.springboottesting.repository.EmployeeRepository;
+import net.salla.springboottesting.service.EmployeeIngestionService;
+import net.salla.springboottesting.service.EmployeeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// write-behind creates on the embedded database: the rest api from the 202 to the status of every
+// employee, and the statements one writer batch sends. the flush interval is long enough for a batch
+// to fill up before it is written, so every batch here is one writer batch
+@SpringBootTest(properties = "employee.ingestion.flush-interval=1s")
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+public class EmployeeIngestionITests {
+
+    @Value("${employee.ingestion.batch-size}")
+    private int ingestionBatchSize;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size}")
+    private int jdbcBatchSize;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeIngestionService employeeIngestionService;
+
+    @Autowired
+    private SqlStatistics sqlStatistics;
+
+    @BeforeEach
+    void setup() {
+        employeeRepository.deleteAllInBatch();
+    }
+
+    //Junit test for creating employees asynchronously through the api
+    @DisplayName("Junit test for creating employees asynchronously through the api")
+    @Test
+    public void givenAsyncCreates_whenWritten_thenCreatedAndTakenEmailRejected() throws Exception {
+
+        // given - precondition  or  setup
+        employeeService.saveEmployee(employee("salla", 0));
+
+        // when - action or the behaviour that we are going to test
+        List<String> trackingIds = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            String response = mockMvc.perform(post("/api/employees")
+                            .header("Prefer", "respond-async")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(employee("salla", i))))
+                    .andExpect(status().isAccepted())
+                    .andReturn().getResponse().getContentAsString();
+            trackingIds.add(objectMapper.readValue(response, EmployeeIngestionStatus.class).trackingId());
+        }
+        List<EmployeeIngestionStatus> statuses = new ArrayList<>();
+        for (String trackingId : trackingIds) {
+            String response = mockMvc.perform(get("/api/employees/ingestion/{trackingId}", awaitWritten(trackingId).trackingId()))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            statuses.add(objectMapper.readValue(response, EmployeeIngestionStatus.class));
+        }
+
+        // then - verify the output
+        assertThat(statuses.get(0).state()).isEqualTo(EmployeeIngestionStatus.State.REJECTED);
+        assertThat(statuses.subList(1, statuses.size())).allMatch(status -> status.state() == EmployeeIngestionStatus.State.CREATED);
+        assertThat(employeeRepository.count()).isEqualTo(50);
+        assertThat(employeeRepository.findById(statuses.get(1).employeeId()))
+                .hasValueSatisfying(employee -> assertThat(employee.getEmail()).isEqualTo("salla1@gmail.com"));
+    }
+
+    //Junit test for writing queued employees in jdbc batches
+    @DisplayName("Junit test for writing queued employees in jdbc batches")
+    @Test
+    public void givenOneWriterBatchOfEmployees_whenWritten_thenOneInsertPerJdbcBatch() throws InterruptedException {
+
+        // given - precondition  or  setup
+        List<Employee> employees = new ArrayList<>(ingestionBatchSize);
+        for (int i = 0; i < ingestionBatchSize; i++) {
+            employees.add(employee("queued", i));
+        }
+
+        // when - action or the behaviour that we are going to test
+        SqlStatementCounter sqlStatementCounter = SqlStatementCounter.start(sqlStatistics);
+        String last = null;
+        for (Employee employee : employees) {
+            last = employeeIngestionService.enqueue(employee).trackingId();
+        }
+        // one writer takes the queue in order, the last one written means all are
+        EmployeeIngestionStatus lastStatus = awaitWritten(last);
+        SqlStatementCounter.SqlStatementCounts counts = sqlStatementCounter.counts();
+
+        // then - verify the output
+        assertThat(lastStatus.state()).isEqualTo(EmployeeIngestionStatus.State.CREATED);
+        assertThat(employeeRepository.count()).isEqualTo(ingestionBatchSize);
+        assertThat(counts.inserts()).isEqualTo((ingestionBatchSize + jdbcBatchSize - 1) / jdbcBatchSize);
+    }
+
+    private EmployeeIngestionStatus awaitWritten(String trackingId) throws InterruptedException {
+        long deadline = System.nanoTime() + 30_000_000_000L;
+        while (true) {
+            EmployeeIngestionStatus status = employeeIngestionService.getStatus(trackingId).orElseThrow();
+            if (status.state() != EmployeeIngestionStatus.State.QUEUED || System.nanoTime() > deadline) {
+                return status;
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    private static Employee employee(String prefix, int i) {
+        return Employee.builder()
+                .firstName(prefix + i)
+                .lastName("mallesh")
+                .email(prefix + i + "@gmail.com")
+                .build();
+    }
+}
@@ -0,0 +1,114 @@
+package net.salla.springboottesting.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.salla.springboottesting.cache.EmployeeCache;
+import net.salla.springboottesting.model.Employee;
+import net.salla.springboottesting.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// the scrape endpoint on the embedded database, metrics exporters are off in tests without @AutoConfigureObservability
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles("h2")
+public class EmployeeMetricsITests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EmployeeCache employeeCache;
+
+    @BeforeEach
+    void setup() {
+        employeeRepository.deleteAll();
+        employeeCache.clear();
+    }
+
+    //Junit test for the prometheus scrape endpoint
+    @DisplayName("Junit test for the prometheus scrape endpoint")
+    @Test
+    public void givenEmployeeRequests_whenScrapePrometheus_thenReturnTimersCountersAndPoolGauges() throws Exception {
+
+        // given - precondition  or  setup
+        Employee employee = Employee.builder()
+                .firstName("salla")
+                .lastName("mallesh")
+                .email("salla@gmail.com")
+                .build();
+        byte[] body = objectMapper.writeValueAsBytes(employee);
+        mockMvc.perform(post("/api/employees").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/api/employees").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isConflict());
+        mockMvc.perform(get("/api/employees/{id}", Long.MAX_VALUE))
+                .andExpect(status().isNotFound());
+
+        // when - action or the behaviour that we are going to test
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // then - verify the output
+        assertThat(lines(scrape, "employee_service_seconds_bucket"))
+                .anyMatch(line -> line.contains("method=\"saveEmployee\"") && line.contains("exception=\"none\""))
+                .anyMatch(line -> line.contains("method=\"saveEmployee\"") && line.contains("exception=\"ResourceAlreadyExistsException\""))
+                .anyMatch(line -> line.contains("method=\"getEmployeeById\""));
+        assertThat(lines(scrape, "spring_data_repository_invocations_seconds_bucket"))
+                .anyMatch(line -> line.contains("repository=\"EmployeeRepository\"") && line.contains("method=\"findById\""));
+        assertThat(lines(scrape, "employee_duplicate_email_rejections_total"))
+                .anyMatch(line -> line.contains("operation=\"saveEmployee\"") && line.endsWith(" 1.0"));
+        assertThat(lines(scrape, "employee_not_found_total"))
+                .anyMatch(line -> line.contains("operation=\"getEmployeeById\"") && line.endsWith(" 1.0"));
+        assertThat(lines(scrape, "hikaricp_connections_active")).isNotEmpty();
+        assertThat(scrape).doesNotContain("salla@gmail.com").doesNotContain(String.valueOf(Long.MAX_VALUE));
+    }
+
+    //Junit test for the sql statistics endpoint
+    @DisplayName("Junit test for the sql statistics endpoint")
+    @Test
+    public void givenEmployeeRequests_whenGetSqlStats_thenReturnStatementShapes() throws Exception {
+
+        // given - precondition  or  setup
+        mockMvc.perform(delete("/actuator/sqlstats"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/employees").param("limit", "20"))
+                .andExpect(status().isOk());
+
+        // when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/actuator/sqlstats"));
+
+        // then - verify the output
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.sql =~ /select .* from employees .* where .*id>\\? order by .*/)].count").value(1));
+    }
+
+    private static List<String> lines(String scrape, String metric) {
+        return scrape.lines().filter(line -> line.startsWith(metric + "{")).toList();
+    }
+}
@@ -0,0 +1,179 @@
+package net.salla.springboottesting.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.Cookie;
+import net.salla.springboottesting.jdbc.ReadYourWritesFilter;
+import net.salla.springboottesting.model.Employee;
+import net.salla.springboottesting.repository.EmployeeRepository;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// read/write splitting on two embedded databases standing in for the primary and one replica. nothing
+// replicates between them, so where a row can be read from tells which database a read went to
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + EmployeeReadReplicaITests.PRIMARY_URL,
+        "employee.datasource.replica-urls=" + EmployeeReadReplicaITests.REPLICA_URL,
+        "employee.datasource.read-your-writes-window=5s"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+public class EmployeeReadReplicaITests {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:primary;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    private static final JdbcTemplate primary = new JdbcTemplate(new DriverManagerDataSource(PRIMARY_URL, "sa", ""));
+
+    private static final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    // flyway only migrates the primary, a real replica would get the schema through replication
+    @BeforeAll
+    static void migrateReplica() {
+        Flyway.configure()
+                .dataSource(REPLICA_URL, "sa", "")
+                .locations("classpath:db/migration/h2")
+                .load()
+                .migrate();
+    }
+
+    @BeforeEach
+    void setup() {
+        primary.update("delete from employees");
+        replica.update("delete from employees");
+    }
+
+    //Junit test for reads going to the replica
+    @DisplayName("Junit test for reads going to the replica")
+    @Test
+    public void givenEmployeeOnlyOnReplica_whenGetAllAndNameQueries_thenReadFromReplica() throws Exception {
+
+        // given - precondition  or  setup
+        replica.update("insert into employees (id, first_name, last_name, email, version) values (?, ?, ?, ?, 0)",
+                1_000_000L, "salla", "mallesh", "salla@gmail.com");
+
+        // when - action or the behaviour that we are going to test
+        // then - verify the output
+        mockMvc.perform(get("/api/employees"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].email", hasItem("salla@gmail.com")));
+        assertThat(employeeRepository.findByJPQL("salla", "mallesh")).isNotNull();
+        assertThat(employeeRepository.findByNativeSQLNamed("salla", "mallesh")).isNotNull();
+        assertThat(employeeRepository.findViewsByName("salla", "mallesh")).hasSize(1);
+    }
+
+    //Junit test for writes going to the primary and reading them back
+    @DisplayName("Junit test for writes going to the primary and reading them back")
+    @Test
+    public void givenNewEmployee_whenReadWithAndWithoutReadYourWritesCookie_thenOnlyPinnedReadSeesIt() throws Exception {
+
+        // given - precondition  or  setup
+        Employee employee = Employee.builder()
+                .firstName("shiva")
+                .lastName("gudeti")
+                .email("shiva@gmail.com")
+                .build();
+
+        // when - action or the behaviour that we are going to test
+        MvcResult created = mockMvc.perform(post("/api/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee)))
+                .andExpect(status().isCreated())
+                .andExpect(cookie().exists(ReadYourWritesFilter.COOKIE))
+                .andReturn();
+        Cookie pinned = created.getResponse().getCookie(ReadYourWritesFilter.COOKIE);
+
+        // then - verify the output
+        assertThat(primary.queryForObject("select count(*) from employees where email = ?", Long.class,
+                employee.getEmail())).isEqualTo(1);
+        assertThat(replica.queryForObject("select count(*) from employees", Long.class)).isZero();
+        mockMvc.perform(get("/api/employees").param("email", employee.getEmail()).cookie(pinned))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value(employee.getEmail()));
+        mockMvc.perform(get("/api/employees").param("email", employee.getEmail()))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/employees").param("email", employee.getEmail())
+                        .cookie(new Cookie(ReadYourWritesFilter.COOKIE, String.valueOf(System.currentTimeMillis() - 1))))
+                .andExpect(status().isNotFound());
+    }
+
+    //Junit test for reads by id after an update with and without the read-your-writes cookie
+    @DisplayName("Junit test for reads by id after an update with and without the read-your-writes cookie")
+    @Test
+    public void givenUpdatedEmployee_whenGetByIdWithAndWithoutReadYourWritesCookie_thenNeitherSeesTheReplica() throws Exception {
+
+        // given - precondition  or  setup
+        long id = 2_000_000L;
+        primary.update("insert into employees (id, first_name, last_name, email, version) values (?, ?, ?, ?, 0)",
+                id, "salla", "mallesh", "salla@gmail.com");
+        replica.update("insert into employees (id, first_name, last_name, email, version) values (?, ?, ?, ?, 0)",
+                id, "salla", "mallesh", "salla@gmail.com");
+        mockMvc.perform(get("/api/employees/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName").value("salla"));
+        Employee changes = Employee.builder()
+                .firstName("shiva")
+                .lastName("mallesh")
+                .email("salla@gmail.com")
+                .build();
+
+        // when - action or the behaviour that we are going to test
+        // the replica keeps the old row, the update evicts the cached one
+        MvcResult updated = mockMvc.perform(put("/api/employees/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(changes)))
+                .andExpect(status().isOk())
+                .andExpect(cookie().exists(ReadYourWritesFilter.COOKIE))
+                .andReturn();
+        Cookie pinned = updated.getResponse().getCookie(ReadYourWritesFilter.COOKIE);
+
+        // then - verify the output
+        // the miss reloads from the primary, not from the lagging replica
+        mockMvc.perform(get("/api/employees/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName").value("shiva"));
+        mockMvc.perform(get("/api/employees/{id}", id).cookie(pinned))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName").value("shiva"));
+        // a change behind the application's back: the cache still has the old row, the pinned read skips it
+        primary.update("update employees set first_name = ? where id = ?", "durga", id);
+        mockMvc.perform(get("/api/employees/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName").value("shiva"));
+        mockMvc.perform(get("/api/employees/{id}", id).cookie(pinned))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName").value("durga"));
+        assertThat(replica.queryForObject("select first_name from employees where id = ?", String.class, id))
+                .isEqualTo("salla");
+    }
+}
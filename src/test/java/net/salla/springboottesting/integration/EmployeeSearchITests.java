@@ -0,0 +1,155 @@
+package net.salla.springboottesting.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.salla.springboottesting.dto.EmployeeView;
+import net.salla.springboottesting.model.Employee;
+import net.salla.springboottesting.repository.EmployeeRepository;
+import net.salla.springboottesting.search.EmployeeSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// the search index kept up to date by the rest api, and built again from the table
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+public class EmployeeSearchITests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeSearchIndex employeeSearchIndex;
+
+    @BeforeEach
+    void setup() {
+        employeeRepository.deleteAll();
+        employeeSearchIndex.rebuild();
+    }
+
+    //Junit test for searching employees written through the api
+    @DisplayName("Junit test for searching employees written through the api")
+    @Test
+    public void givenCreatedPatchedAndDeletedEmployees_whenSearch_thenFindCurrentValues() throws Exception {
+
+        // given - precondition  or  setup
+        Employee salla = create("salla", "mallesh", "salla@gmail.com");
+        Employee shiva = create("shiva", "gudeti", "shiva@gmail.com");
+        mockMvc.perform(patch("/api/employees/{id}", salla.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"lastName\":\"kuruma\"}"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/api/employees/{id}", shiva.getId()))
+                .andExpect(status().isOk());
+
+        // when - action or the behaviour that we are going to test
+        // then - verify the output
+        mockMvc.perform(get("/api/employees/search").param("q", "sal kur"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(1)))
+                .andExpect(jsonPath("$[0].email", is("salla@gmail.com")))
+                .andExpect(jsonPath("$[0].lastName", is("kuruma")));
+        mockMvc.perform(get("/api/employees/search").param("q", "mallesh"))
+                .andExpect(jsonPath("$.size()", is(0)));
+        mockMvc.perform(get("/api/employees/search").param("q", "shiva"))
+                .andExpect(jsonPath("$.size()", is(0)));
+    }
+
+    //Junit test for building the index from the table
+    @DisplayName("Junit test for building the index from the table")
+    @Test
+    public void givenRowsSavedBehindTheService_whenRebuild_thenSearchFindsThem() throws Exception {
+
+        // given - precondition  or  setup
+        employeeRepository.save(Employee.builder().firstName("durga").lastName("prasad").email("durga@gmail.com").build());
+
+        // when - action or the behaviour that we are going to test
+        employeeSearchIndex.rebuild();
+
+        // then - verify the output
+        mockMvc.perform(get("/api/employees/search").param("q", "du"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(1)))
+                .andExpect(jsonPath("$[0].firstName", is("durga")));
+    }
+
+    //Junit test for updates reaching the index out of order
+    @DisplayName("Junit test for updates reaching the index out of order")
+    @Test
+    public void givenUpdatesAppliedInReverseOrder_whenSearch_thenFindNewestVersion() throws Exception {
+
+        // given - precondition  or  setup
+        Employee salla = create("salla", "mallesh", "salla@gmail.com");
+
+        // when - action or the behaviour that we are going to test
+        // after-commit callbacks of two updates, the later one runs first
+        employeeSearchIndex.put(new EmployeeView(salla.getId(), "salla", "kuruma", "salla@gmail.com", 2L));
+        employeeSearchIndex.put(new EmployeeView(salla.getId(), "salla", "gudeti", "salla@gmail.com", 1L));
+        employeeSearchIndex.patchAfterCommit(salla.getId(), null, "prasad", null, 1L);
+
+        // then - verify the output
+        mockMvc.perform(get("/api/employees/search").param("q", "salla"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(1)))
+                .andExpect(jsonPath("$[0].lastName", is("kuruma")));
+    }
+
+    //Junit test for cached results
+    @DisplayName("Junit test for cached results")
+    @Test
+    public void givenCachedResult_whenWriteChangesIt_thenSearchFindsTheWrite() throws Exception {
+
+        // given - precondition  or  setup
+        Employee salla = create("salla", "mallesh", "salla@gmail.com");
+        create("shiva", "gudeti", "shiva@gmail.com");
+        mockMvc.perform(get("/api/employees/search").param("q", "sa").param("limit", "1"))
+                .andExpect(jsonPath("$[0].firstName", is("salla")));
+
+        // when - action or the behaviour that we are going to test
+        create("durga", "prasad", "durga@yahoo.com");
+        mockMvc.perform(get("/api/employees/search").param("q", "sa").param("limit", "1"))
+                .andExpect(jsonPath("$[0].firstName", is("salla")));
+        mockMvc.perform(get("/api/employees/search").param("q", "sal"))
+                .andExpect(jsonPath("$.size()", is(1)));
+        // shorter than salla, so it is the best match now
+        create("sai", "kumar", "sai@gmail.com");
+        mockMvc.perform(delete("/api/employees/{id}", salla.getId()))
+                .andExpect(status().isOk());
+
+        // then - verify the output
+        mockMvc.perform(get("/api/employees/search").param("q", "sa").param("limit", "1"))
+                .andExpect(jsonPath("$[0].firstName", is("sai")));
+        mockMvc.perform(get("/api/employees/search").param("q", "sal"))
+                .andExpect(jsonPath("$.size()", is(0)));
+    }
+
+    private Employee create(String firstName, String lastName, String email) throws Exception {
+        Employee employee = Employee.builder().firstName(firstName).lastName(lastName).email(email).build();
+        String body = mockMvc.perform(post("/api/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, Employee.class);
+    }
+}
@@ -0,0 +1,118 @@
+package net.salla.springboottesting.jdbc;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+
+public class ReplicaPoolTests {
+
+    private final AtomicLong nanoTime = new AtomicLong(-5_000_000_000L);
+
+    private DataSource replica0;
+
+    private DataSource replica1;
+
+    private Connection connection0;
+
+    private Connection connection1;
+
+    private ReplicaPool replicaPool;
+
+    @BeforeEach
+    void setup() throws SQLException {
+        replica0 = mock(DataSource.class);
+        replica1 = mock(DataSource.class);
+        connection0 = mock(Connection.class);
+        connection1 = mock(Connection.class);
+        given(replica0.getConnection()).willReturn(connection0);
+        given(replica1.getConnection()).willReturn(connection1);
+        replicaPool = new ReplicaPool(List.of(replica0, replica1), Duration.ofSeconds(30), nanoTime::get);
+    }
+
+    //Junit test for load balancing over the replicas
+    @DisplayName("Junit test for load balancing over the replicas")
+    @Test
+    public void givenTwoReplicas_whenGetConnection_thenTakeThemInTurn() {
+
+        // given - precondition  or  setup
+
+        // when - action or the behaviour that we are going to test
+        List<Connection> connections = List.of(replicaPool.getConnection(), replicaPool.getConnection(),
+                replicaPool.getConnection(), replicaPool.getConnection());
+
+        // then - verify the output
+        assertThat(connections).containsExactly(connection0, connection1, connection0, connection1);
+        assertThat(replicaPool.available()).isEqualTo(2);
+    }
+
+    //Junit test for ejecting a replica that fails
+    @DisplayName("Junit test for ejecting a replica that fails")
+    @Test
+    public void givenFailingReplica_whenGetConnection_thenEjectItAndUseTheOther() throws SQLException {
+
+        // given - precondition  or  setup
+        willThrow(new SQLException("Connection refused")).given(replica0).getConnection();
+
+        // when - action or the behaviour that we are going to test
+        Connection first = replicaPool.getConnection();
+        Connection second = replicaPool.getConnection();
+
+        // then - verify the output
+        assertThat(first).isSameAs(connection1);
+        assertThat(second).isSameAs(connection1);
+        assertThat(replicaPool.available()).isEqualTo(1);
+    }
+
+    //Junit test for every replica being ejected
+    @DisplayName("Junit test for every replica being ejected")
+    @Test
+    public void givenAllReplicasFailing_whenGetConnection_thenReturnNullForThePrimary() throws SQLException {
+
+        // given - precondition  or  setup
+        willThrow(new SQLException("Connection refused")).given(replica0).getConnection();
+        willThrow(new SQLException("Connection refused")).given(replica1).getConnection();
+
+        // when - action or the behaviour that we are going to test
+        Connection connection = replicaPool.getConnection();
+
+        // then - verify the output
+        assertThat(connection).isNull();
+        assertThat(replicaPool.available()).isZero();
+    }
+
+    //Junit test for taking an ejected replica back
+    @DisplayName("Junit test for taking an ejected replica back")
+    @Test
+    public void givenEjectedReplica_whenEjectionIsOverAndItRecovered_thenUseItAgain() throws SQLException {
+
+        // given - precondition  or  setup
+        willThrow(new SQLException("Connection refused")).given(replica0).getConnection();
+        replicaPool.getConnection();
+        reset(replica0);
+        given(replica0.getConnection()).willReturn(connection0);
+
+        // when - action or the behaviour that we are going to test
+        nanoTime.addAndGet(Duration.ofSeconds(29).toNanos());
+        int availableDuringEjection = replicaPool.available();
+        nanoTime.addAndGet(Duration.ofSeconds(2).toNanos());
+
+        // then - verify the output
+        assertThat(availableDuringEjection).isEqualTo(1);
+        assertThat(replicaPool.available()).isEqualTo(2);
+        assertThat(List.of(replicaPool.getConnection(), replicaPool.getConnection()))
+                .containsExactlyInAnyOrder(connection0, connection1);
+    }
+}
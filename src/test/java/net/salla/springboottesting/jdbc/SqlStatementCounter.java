@@ -0,0 +1,66 @@
+package net.salla.springboottesting.jdbc;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// counts the select, insert, update and delete statements sent to the database between start and
+// counts(), read from the SqlStatistics that StatementTimingProxy keeps. a jdbc batch counts as one
+// statement (one round trip). slices need @Import(SqlStatisticsConfig.class) to get the proxy:
+//   SqlStatementCounter sqlStatementCounter = SqlStatementCounter.start(sqlStatistics);
+//   mockMvc.perform(get("/api/employees/{id}", id));
+//   assertThat(sqlStatementCounter.counts().selects()).isEqualTo(1);
+public class SqlStatementCounter {
+
+    private final SqlStatistics sqlStatistics;
+
+    private final Map<String, Long> before;
+
+    private SqlStatementCounter(SqlStatistics sqlStatistics) {
+        this.sqlStatistics = sqlStatistics;
+        this.before = executions(sqlStatistics);
+    }
+
+    public static SqlStatementCounter start(SqlStatistics sqlStatistics) {
+        return new SqlStatementCounter(sqlStatistics);
+    }
+
+    public SqlStatementCounts counts() {
+        long selects = 0;
+        long inserts = 0;
+        long updates = 0;
+        long deletes = 0;
+        long others = 0;
+        for (Map.Entry<String, Long> execution : executions(sqlStatistics).entrySet()) {
+            long count = execution.getValue() - before.getOrDefault(execution.getKey(), 0L);
+            String sql = execution.getKey().stripLeading().toLowerCase(Locale.ROOT);
+            if (sql.startsWith("select") || sql.startsWith("with")) {
+                selects += count;
+            } else if (sql.startsWith("insert")) {
+                inserts += count;
+            } else if (sql.startsWith("update")) {
+                updates += count;
+            } else if (sql.startsWith("delete")) {
+                deletes += count;
+            } else {
+                others += count;
+            }
+        }
+        return new SqlStatementCounts(selects, inserts, updates, deletes, others);
+    }
+
+    private static Map<String, Long> executions(SqlStatistics sqlStatistics) {
+        Map<String, Long> executions = new HashMap<>();
+        for (SqlStatistics.Entry entry : sqlStatistics.entries()) {
+            executions.put(entry.sql(), entry.count());
+        }
+        return executions;
+    }
+
+    public record SqlStatementCounts(long selects, long inserts, long updates, long deletes, long others) {
+
+        public long total() {
+            return selects + inserts + updates + deletes + others;
+        }
+    }
+}
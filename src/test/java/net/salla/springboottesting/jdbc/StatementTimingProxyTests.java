@@ -0,0 +1,143 @@
+package net.salla.springboottesting.jdbc;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StatementTimingProxyTests {
+
+    private JdbcDataSource h2;
+
+    private SqlStatistics sqlStatistics;
+
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setup() throws Exception {
+        h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:proxy" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        try (Connection connection = h2.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("create table employees (id bigint primary key, first_name varchar(255))");
+        }
+        sqlStatistics = new SqlStatistics(100);
+        dataSource = StatementTimingProxy.wrap(h2, sqlStatistics, Duration.ofSeconds(1));
+    }
+
+    //Junit test for statements run through the proxy
+    @DisplayName("Junit test for statements run through the proxy")
+    @Test
+    public void givenStatements_whenExecuted_thenAggregatePerShapeWithRows() throws Exception {
+
+        // given - precondition  or  setup
+        String insert = "insert into employees (id, first_name) values (?, ?)";
+        String select = "select * from employees where id > ?";
+
+        // when - action or the behaviour that we are going to test
+        try (Connection connection = dataSource.getConnection()) {
+            try (PreparedStatement statement = connection.prepareStatement(insert)) {
+                for (long id = 1; id <= 3; id++) {
+                    statement.setLong(1, id);
+                    statement.setString(2, "salla" + id);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+            try (PreparedStatement statement = connection.prepareStatement(select)) {
+                statement.setLong(1, 1);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        assertThat(resultSet.getString("first_name")).startsWith("salla");
+                    }
+                }
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("update employees set first_name = 'mallesh' where id = 1");
+                statement.executeUpdate("update employees set first_name = 'ramesh' where id = 2");
+            }
+        }
+
+        // then - verify the output
+        List<SqlStatistics.Entry> entries = sqlStatistics.entries();
+        assertThat(entries).hasSize(3);
+        assertThat(entries).filteredOn(entry -> entry.sql().equals(insert))
+                .singleElement()
+                .satisfies(entry -> {
+                    assertThat(entry.count()).isEqualTo(1);
+                    assertThat(entry.rows()).isEqualTo(3);
+                });
+        assertThat(entries).filteredOn(entry -> entry.sql().equals(select))
+                .singleElement()
+                .satisfies(entry -> {
+                    assertThat(entry.count()).isEqualTo(1);
+                    assertThat(entry.rows()).isEqualTo(2);
+                    assertThat(entry.maxMillis()).isPositive();
+                });
+        assertThat(entries).filteredOn(entry -> entry.sql().equals("update employees set first_name = ? where id = ?"))
+                .singleElement()
+                .satisfies(entry -> {
+                    assertThat(entry.count()).isEqualTo(2);
+                    assertThat(entry.rows()).isEqualTo(2);
+                });
+    }
+
+    //Junit test for the shape of a statement
+    @DisplayName("Junit test for the shape of a statement")
+    @Test
+    public void givenStatementsWithLiteralsAndInLists_whenShape_thenReplaceValues() {
+
+        // when - action or the behaviour that we are going to test
+        String shape = SqlStatistics.shape("select e1_0.id from employees e1_0\n where e1_0.email = 'it''s'"
+                + " and e1_0.id in (?, ?,?) and e1_0.version > 10 limit 21");
+
+        // then - verify the output
+        assertThat(shape).isEqualTo("select e1_0.id from employees e1_0 where e1_0.email = ?"
+                + " and e1_0.id in (?...) and e1_0.version > ? limit ?");
+    }
+
+    //Junit test for more statement shapes than kept
+    @DisplayName("Junit test for more statement shapes than kept")
+    @Test
+    public void givenMoreShapesThanMaximum_whenExecuted_thenAddUpTheRestUnderOther() throws Exception {
+
+        // given - precondition  or  setup
+        DataSource dataSource = StatementTimingProxy.wrap(h2, sqlStatistics = new SqlStatistics(1), Duration.ofSeconds(1));
+
+        // when - action or the behaviour that we are going to test
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.executeQuery("select id from employees").close();
+            statement.executeQuery("select first_name from employees").close();
+            statement.executeQuery("select count(*) from employees").close();
+        }
+
+        // then - verify the output
+        assertThat(sqlStatistics.entries())
+                .extracting(SqlStatistics.Entry::sql, SqlStatistics.Entry::count)
+                .containsExactlyInAnyOrder(
+                        org.assertj.core.groups.Tuple.tuple("select id from employees", 1L),
+                        org.assertj.core.groups.Tuple.tuple(SqlStatistics.OTHER, 2L));
+    }
+
+    //Junit test for unwrapping the proxy
+    @DisplayName("Junit test for unwrapping the proxy")
+    @Test
+    public void givenProxy_whenUnwrap_thenReturnTargetDataSource() throws Exception {
+
+        // when - action or the behaviour that we are going to test
+        JdbcDataSource unwrapped = dataSource.unwrap(JdbcDataSource.class);
+
+        // then - verify the output
+        assertThat(unwrapped).isSameAs(h2);
+        assertThat(dataSource.isWrapperFor(JdbcDataSource.class)).isTrue();
+    }
+}
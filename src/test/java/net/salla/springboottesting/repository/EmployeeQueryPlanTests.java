@@ -0,0 +1,82 @@
+package net.salla.springboottesting.repository;
+
+import net.salla.springboottesting.config.SqlStatisticsConfig;
+import net.salla.springboottesting.jdbc.SqlStatistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// runs EXPLAIN against the flyway schema on the sql hibernate actually sent for the EmployeeRepository
+// queries, captured by StatementTimingProxy, so a changed mapping or query shows up in the plan
+@DataJpaTest
+@Import(SqlStatisticsConfig.class)
+public class EmployeeQueryPlanTests {
+
+    private static final String IN_LIST = "in (?...)";
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private SqlStatistics sqlStatistics;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    //Junit test for the name queries using the name index
+    @DisplayName("Junit test for the name queries using the name index")
+    @Test
+    public void givenNameQuery_whenExplain_thenUseNameIndex() {
+
+        // when - action or the behaviour that we are going to test
+        List<String> plans = List.of(
+                explain(() -> employeeRepository.findByJPQL("salla", "mallesh"), "salla", "mallesh"),
+                explain(() -> employeeRepository.findByJPQLNamedParams("salla", "mallesh"), "salla", "mallesh"),
+                explain(() -> employeeRepository.findByNativeSQLIndex("salla", "mallesh"), "salla", "mallesh"),
+                explain(() -> employeeRepository.findByNativeSQLNamed("salla", "mallesh"), "salla", "mallesh"),
+                explain(() -> employeeRepository.findViewsByName("salla", "mallesh"), "salla", "mallesh"));
+
+        // then - verify the output
+        assertThat(plans).allSatisfy(plan -> assertThat(plan).containsIgnoringCase("idx_employees_name"));
+    }
+
+    //Junit test for the email queries using the unique email index
+    @DisplayName("Junit test for the email queries using the unique email index")
+    @Test
+    public void givenEmailQuery_whenExplain_thenUseEmailIndex() {
+
+        // when - action or the behaviour that we are going to test
+        String findByEmailPlan = explain(() -> employeeRepository.findByEmail("salla@gmail.com"), "salla@gmail.com");
+        String findViewByEmailPlan = explain(() -> employeeRepository.findViewByEmail("salla@gmail.com"), "salla@gmail.com");
+        String existingEmailsPlan = explain(() -> employeeRepository.findExistingEmails(
+                List.of("salla@gmail.com", "shiva@gmail.com")), "salla@gmail.com", "shiva@gmail.com");
+
+        // then - verify the output
+        assertThat(findByEmailPlan).containsIgnoringCase("uk_employees_email");
+        assertThat(findViewByEmailPlan).containsIgnoringCase("uk_employees_email");
+        assertThat(existingEmailsPlan).containsIgnoringCase("uk_employees_email");
+    }
+
+    // runs the repository call, then explains the one statement it sent with the same parameters. the
+    // statistics keep the statement with an in list collapsed, it gets back one ? per remaining parameter
+    private String explain(Runnable query, Object... params) {
+        sqlStatistics.reset();
+        query.run();
+        List<SqlStatistics.Entry> statements = sqlStatistics.entries();
+        assertThat(statements).hasSize(1);
+        String sql = statements.get(0).sql();
+        if (sql.contains(IN_LIST)) {
+            int listSize = params.length - (int) sql.replace(IN_LIST, "").chars().filter(c -> c == '?').count();
+            sql = sql.replace(IN_LIST, "in (" + String.join(", ", Collections.nCopies(listSize, "?")) + ")");
+        }
+        return jdbcTemplate.queryForObject("explain " + sql, String.class, params);
+    }
+}
@@ -1,25 +1,41 @@
 package net.salla.springboottesting.repository;
 
+import jakarta.persistence.EntityManager;
+import net.salla.springboottesting.config.SqlStatisticsConfig;
+import net.salla.springboottesting.dto.EmployeeView;
+import net.salla.springboottesting.jdbc.SqlStatementCounter;
+import net.salla.springboottesting.jdbc.SqlStatistics;
 import net.salla.springboottesting.model.Employee;
 
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import org.hibernate.engine.spi.SessionImplementor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @DataJpaTest
+@Import(SqlStatisticsConfig.class)  // statement counts
 public class EmployeeRepositoryTests {
 
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private SqlStatistics sqlStatistics;
+
+    @Autowired
+    private EntityManager entityManager;
+
     Employee employee;
 
     @BeforeEach
@@ -276,4 +292,201 @@ public class EmployeeRepositoryTests {
         assertThat(savedEmployee).isNotNull();
     }
 
+    //Junit test for conditional replace
+    @DisplayName("Junit test for conditional replace")
+    @Test
+    public void givenEmployeeObject_whenReplaceWithCurrentAndStaleVersion_thenOnlyFirstUpdates() {
+
+        // given - precondition  or  setup
+        employeeRepository.saveAndFlush(employee);
+        long version = employee.getVersion();
+
+        // when - action or the behaviour that we are going to test
+        int first = employeeRepository.replace(employee.getId(), version, "Salla", "Mallesh", "Salla@gmail.com");
+        int second = employeeRepository.replace(employee.getId(), version, "Shiva", "Gudeti", "shiva@gmail.com");
+
+        // then - verify the output
+        assertThat(first).isEqualTo(1);
+        assertThat(second).isZero();
+        Employee updatedEmployee = employeeRepository.findById(employee.getId()).get();
+        assertThat(updatedEmployee.getFirstName()).isEqualTo("Salla");
+        assertThat(updatedEmployee.getVersion()).isEqualTo(version + 1);
+    }
+
+    //Junit test for partial update
+    @DisplayName("Junit test for partial update")
+    @Test
+    public void givenOnlyEmail_whenPatch_thenKeepOtherFields() {
+
+        // given - precondition  or  setup
+        employeeRepository.saveAndFlush(employee);
+
+        // when - action or the behaviour that we are going to test
+        int updated = employeeRepository.patch(employee.getId(), null, null, null, "Salla@gmail.com");
+
+        // then - verify the output
+        assertThat(updated).isEqualTo(1);
+        Employee updatedEmployee = employeeRepository.findById(employee.getId()).get();
+        assertThat(updatedEmployee.getFirstName()).isEqualTo("salla");
+        assertThat(updatedEmployee.getEmail()).isEqualTo("Salla@gmail.com");
+        assertThat(employeeRepository.patch(employee.getId(), 0L, "shiva", null, null)).isZero();
+    }
+
+    //Junit test for single statement delete
+    @DisplayName("Junit test for single statement delete")
+    @Test
+    public void givenEmployeeObject_whenDeleteEmployeeById_thenReturnDeletedRows() {
+
+        // given - precondition  or  setup
+        employeeRepository.save(employee);
+
+        // when - action or the behaviour that we are going to test
+        int deleted = employeeRepository.deleteEmployeeById(employee.getId());
+        int deletedAgain = employeeRepository.deleteEmployeeById(employee.getId());
+
+        // then - verify the output
+        assertThat(deleted).isEqualTo(1);
+        assertThat(deletedAgain).isZero();
+        assertThat(employeeRepository.findById(employee.getId())).isEmpty();
+    }
+
+    //Junit test for bulk delete
+    @DisplayName("Junit test for bulk delete")
+    @Test
+    public void givenEmployeeList_whenDeleteEmployeesByIds_thenDeleteOnlyGivenIds() {
+
+        // given - precondition  or  setup
+        Employee employee1 = Employee.builder()
+                .firstName("suresh")
+                .lastName("kuruma")
+                .email("kuruma@gmail.com")
+                .build();
+        employeeRepository.save(employee);
+        employeeRepository.save(employee1);
+
+        // when - action or the behaviour that we are going to test
+        int deleted = employeeRepository.deleteEmployeesByIds(List.of(employee.getId(), -1L));
+
+        // then - verify the output
+        assertThat(deleted).isEqualTo(1);
+        assertThat(employeeRepository.findAll()).extracting(Employee::getId).containsExactly(employee1.getId());
+    }
+
+    //Junit test for statements of the custom name queries
+    @DisplayName("Junit test for statements of the custom name queries")
+    @Test
+    public void givenFirstNameAndLastName_whenCustomNameQueries_thenOneSelectEach() {
+
+        // given - precondition  or  setup
+        employeeRepository.saveAndFlush(employee);
+        SqlStatementCounter sqlStatementCounter = SqlStatementCounter.start(sqlStatistics);
+
+        // when - action or the behaviour that we are going to test
+        employeeRepository.findByJPQL("salla", "mallesh");
+        employeeRepository.findByJPQLNamedParams("salla", "mallesh");
+        employeeRepository.findByNativeSQLIndex("salla", "mallesh");
+        employeeRepository.findByNativeSQLNamed("salla", "mallesh");
+
+        // then - verify the output
+        SqlStatementCounter.SqlStatementCounts counts = sqlStatementCounter.counts();
+        assertThat(counts.selects()).isEqualTo(4);
+        assertThat(counts.total()).isEqualTo(4);
+    }
+
+    //Junit test for statements of the single statement delete
+    @DisplayName("Junit test for statements of the single statement delete")
+    @Test
+    public void givenEmployeeObject_whenDeleteEmployeeById_thenOneDeleteAndNoSelect() {
+
+        // given - precondition  or  setup
+        employeeRepository.saveAndFlush(employee);
+        SqlStatementCounter sqlStatementCounter = SqlStatementCounter.start(sqlStatistics);
+
+        // when - action or the behaviour that we are going to test
+        employeeRepository.deleteEmployeeById(employee.getId());
+
+        // then - verify the output
+        SqlStatementCounter.SqlStatementCounts counts = sqlStatementCounter.counts();
+        assertThat(counts.deletes()).isEqualTo(1);
+        assertThat(counts.total()).isEqualTo(1);
+    }
+
+    //Junit test for statements of a lookup by several ids
+    @DisplayName("Junit test for statements of a lookup by several ids")
+    @Test
+    public void givenEmployeeList_whenFindAllById_thenOneSelect() {
+
+        // given - precondition  or  setup
+        Employee employee1 = Employee.builder()
+                .firstName("suresh")
+                .lastName("kuruma")
+                .email("kuruma@gmail.com")
+                .build();
+        employeeRepository.saveAllAndFlush(List.of(employee, employee1));
+        SqlStatementCounter sqlStatementCounter = SqlStatementCounter.start(sqlStatistics);
+
+        // when - action or the behaviour that we are going to test
+        List<Employee> employees = employeeRepository.findAllById(List.of(employee.getId(), employee1.getId(), -1L));
+
+        // then - verify the output
+        assertThat(employees).hasSize(2);
+        assertThat(sqlStatementCounter.counts().selects()).isEqualTo(1);
+        assertThat(sqlStatementCounter.counts().total()).isEqualTo(1);
+    }
+
+    //Junit test for the projection queries
+    @DisplayName("Junit test for the projection queries")
+    @Test
+    public void givenEmployeeList_whenViewQueries_thenReturnProjectionsWithoutManagedEntities() {
+
+        // given - precondition  or  setup
+        Employee employee1 = Employee.builder()
+                .firstName("suresh")
+                .lastName("kuruma")
+                .email("kuruma@gmail.com")
+                .build();
+        employeeRepository.saveAllAndFlush(List.of(employee, employee1));
+        entityManager.clear();
+        SqlStatementCounter sqlStatementCounter = SqlStatementCounter.start(sqlStatistics);
+
+        // when - action or the behaviour that we are going to test
+        List<EmployeeView> page = employeeRepository.findViewPageAfter(employee.getId(), PageRequest.of(0, 10));
+        List<EmployeeView> all = employeeRepository.findAllViews();
+        Optional<EmployeeView> byEmail = employeeRepository.findViewByEmail(employee.getEmail());
+        List<EmployeeView> byName = employeeRepository.findViewsByName("suresh", "kuruma");
+
+        // then - verify the output
+        assertThat(page).extracting(EmployeeView::id).containsExactly(employee1.getId());
+        assertThat(all).extracting(EmployeeView::id).containsExactly(employee.getId(), employee1.getId());
+        assertThat(byEmail).contains(new EmployeeView(employee.getId(), "salla", "mallesh", "sall@gmail.com",
+                employee.getVersion()));
+        assertThat(byName).extracting(EmployeeView::email).containsExactly("kuruma@gmail.com");
+        assertThat(sqlStatementCounter.counts().selects()).isEqualTo(4);
+        assertThat(managedEntities()).isZero();
+    }
+
+    //Junit test for streaming all employees as projections
+    @DisplayName("Junit test for streaming all employees as projections")
+    @Test
+    public void givenEmployeeList_whenStreamAllViews_thenReturnAllEmployeesWithoutManagedEntities() {
+
+        // given - precondition  or  setup
+        employeeRepository.saveAndFlush(employee);
+        entityManager.clear();
+
+        // when - action or the behaviour that we are going to test
+        List<EmployeeView> employees;
+        try (Stream<EmployeeView> stream = employeeRepository.streamAllViews()) {
+            employees = stream.toList();
+        }
+
+        // then - verify the output
+        assertThat(employees).extracting(EmployeeView::id).containsExactly(employee.getId());
+        assertThat(managedEntities()).isZero();
+    }
+
+    private int managedEntities() {
+        return entityManager.unwrap(SessionImplementor.class).getPersistenceContextInternal()
+                .getNumberOfManagedEntities();
+    }
 }
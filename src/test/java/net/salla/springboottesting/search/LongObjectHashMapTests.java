@@ -0,0 +1,41 @@
+package net.salla.springboottesting.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LongObjectHashMapTests {
+
+    //Junit test for random puts and removes
+    @DisplayName("Junit test for random puts and removes")
+    @Test
+    public void givenRandomPutsAndRemoves_whenGet_thenSameAsHashMap() {
+
+        // given - precondition  or  setup
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+        Map<Long, String> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        // when - action or the behaviour that we are going to test
+        for (int i = 0; i < 200_000; i++) {
+            // few distinct keys, so removes hit existing entries and probe runs get long
+            long key = random.nextInt(5_000) * 1_024L;
+            if (random.nextInt(3) == 0) {
+                assertThat(map.remove(key)).isEqualTo(expected.remove(key));
+            } else {
+                assertThat(map.put(key, "v" + i)).isEqualTo(expected.put(key, "v" + i));
+            }
+        }
+
+        // then - verify the output
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (long key = 0; key < 5_000 * 1_024L; key += 1_024) {
+            assertThat(map.get(key)).isEqualTo(expected.get(key));
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package net.salla.springboottesting.search;
+
+import net.salla.springboottesting.dto.EmployeeView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TrigramIndexTests {
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    void setup() {
+        index = new TrigramIndex();
+        index.put(new EmployeeView(1L, "salla", "mallesh", "salla@gmail.com", 0L));
+        index.put(new EmployeeView(2L, "shiva", "gudeti", "shiva@gmail.com", 0L));
+        index.put(new EmployeeView(3L, "suresh", "kuruma", "kuruma@yahoo.com", 0L));
+        index.put(new EmployeeView(4L, "Durga", "Prasad Salla", null, 0L));
+    }
+
+    //Junit test for one and two character queries
+    @DisplayName("Junit test for one and two character queries")
+    @Test
+    public void givenShortQuery_whenSearch_thenMatchFieldPrefixesOnly() {
+
+        // given - precondition  or  setup
+
+        // when - action or the behaviour that we are going to test
+        List<EmployeeView> s = index.search("s", 10);
+        List<EmployeeView> ku = index.search("KU", 10);
+        List<EmployeeView> la = index.search("la", 10);
+
+        // then - verify the output
+        assertThat(s).extracting(EmployeeView::id).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(ku).extracting(EmployeeView::id).containsExactly(3L);
+        assertThat(la).isEmpty();
+    }
+
+    //Junit test for longer queries
+    @DisplayName("Junit test for longer queries")
+    @Test
+    public void givenLongerQuery_whenSearch_thenMatchAnywhereAndRankPrefixesFirst() {
+
+        // given - precondition  or  setup
+
+        // when - action or the behaviour that we are going to test
+        List<EmployeeView> salla = index.search("salla", 10);
+        List<EmployeeView> gmail = index.search("gmail", 10);
+        List<EmployeeView> all = index.search("lle", 10);
+
+        // then - verify the output
+        // exact first name, then the word inside "prasad salla"
+        assertThat(salla).extracting(EmployeeView::id).containsExactly(1L, 4L);
+        assertThat(gmail).extracting(EmployeeView::id).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(all).extracting(EmployeeView::id).containsExactly(1L);
+        assertThat(index.search("xyz", 10)).isEmpty();
+    }
+
+    //Junit test for several words and the limit
+    @DisplayName("Junit test for several words and the limit")
+    @Test
+    public void givenSeveralWords_whenSearch_thenEveryWordHasToMatchAndLimitApplies() {
+
+        // given - precondition  or  setup
+
+        // when - action or the behaviour that we are going to test
+        List<EmployeeView> shivaGudeti = index.search("  shiva   gud ", 10);
+        List<EmployeeView> shivaKuruma = index.search("shiva kuruma", 10);
+        List<EmployeeView> limited = index.search("s", 2);
+
+        // then - verify the output
+        assertThat(shivaGudeti).extracting(EmployeeView::id).containsExactly(2L);
+        assertThat(shivaKuruma).isEmpty();
+        assertThat(limited).hasSize(2);
+        assertThat(index.search("   ", 10)).isEmpty();
+    }
+
+    //Junit test for updates and removals
+    @DisplayName("Junit test for updates and removals")
+    @Test
+    public void givenUpdatedAndRemovedEmployees_whenSearch_thenOnlyFindCurrentValues() {
+
+        // given - precondition  or  setup
+        index.put(new EmployeeView(2L, "ramesh", "gudeti", "ramesh@gmail.com", 1L));
+        index.remove(3L);
+
+        // when - action or the behaviour that we are going to test
+        List<EmployeeView> shiva = index.search("shiva", 10);
+        List<EmployeeView> ramesh = index.search("ram", 10);
+        List<EmployeeView> kuruma = index.search("kuruma", 10);
+
+        // then - verify the output
+        assertThat(shiva).isEmpty();
+        assertThat(ramesh).extracting(EmployeeView::version).containsExactly(1L);
+        assertThat(kuruma).isEmpty();
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    //Junit test for rows read by a rebuild
+    @DisplayName("Junit test for rows read by a rebuild")
+    @Test
+    public void givenOlderVersion_whenPutIfNewer_thenKeepTheNewerOne() {
+
+        // given - precondition  or  setup
+        index.put(new EmployeeView(1L, "salla", "mallesh", "salla@gmail.com", 2L));
+
+        // when - action or the behaviour that we are going to test
+        index.putIfNewer(new EmployeeView(1L, "old", "mallesh", "salla@gmail.com", 1L));
+        index.putIfNewer(new EmployeeView(9L, "new", "employee", "new@gmail.com", 0L));
+
+        // then - verify the output
+        assertThat(index.get(1L).firstName()).isEqualTo("salla");
+        assertThat(index.get(9L).firstName()).isEqualTo("new");
+    }
+
+    //Junit test for building the index again after many removals
+    @DisplayName("Junit test for building the index again after many removals")
+    @Test
+    public void givenManyRemovedEmployees_whenRanked_thenSearchStillWorks() {
+
+        // given - precondition  or  setup
+        for (long id = 100; id < 5_100; id++) {
+            index.put(new EmployeeView(id, "temp" + id, "employee", "temp" + id + "@gmail.com", 0L));
+        }
+        for (long id = 100; id < 5_100; id++) {
+            index.remove(id);
+        }
+
+        // when - action or the behaviour that we are going to test
+        boolean needsRanking = index.needsRanking();
+        TrigramIndex ranked = TrigramIndex.ranked(index.employees().get());
+
+        // then - verify the output
+        assertThat(needsRanking).isTrue();
+        assertThat(ranked.removed()).isZero();
+        assertThat(ranked.unranked()).isZero();
+        assertThat(ranked.needsRanking()).isFalse();
+        assertThat(index.search("temp", 10)).isEmpty();
+        assertThat(index.search("salla", 10)).extracting(EmployeeView::id).containsExactly(1L, 4L);
+        assertThat(ranked.search("salla", 10)).extracting(EmployeeView::id).containsExactly(1L, 4L);
+    }
+
+    //Junit test for searches stopping early in a ranked index
+    @DisplayName("Junit test for searches stopping early in a ranked index")
+    @Test
+    public void givenRankedAndWrittenEmployees_whenSearch_thenSameResultsAsScoringAll() {
+
+        // given - precondition  or  setup
+        List<EmployeeView> employees = new ArrayList<>();
+        for (long id = 10; id < 3_000; id++) {
+            String firstName = (id % 3 == 0 ? "salla" : id % 3 == 1 ? "shiva" : "sal") + id % 97;
+            String email = (id % 5 == 0 ? "s" : firstName) + id + (id % 2 == 0 ? "@gmail.com" : "@mail.com");
+            employees.add(new EmployeeView(id, firstName, id % 7 == 0 ? "s" : "mallesh" + id % 11, email, 0L));
+        }
+        TrigramIndex ranked = TrigramIndex.ranked(employees);
+        // every employee written after the ranking is scored
+        TrigramIndex written = new TrigramIndex();
+        employees.forEach(written::put);
+        for (TrigramIndex target : List.of(ranked, written)) {
+            target.put(new EmployeeView(5L, "s", "m", "s@gmail.com", 1L));
+            target.put(new EmployeeView(11L, "gmail", "mallesh", "gmail@mail.com", 1L));
+            target.remove(12L);
+            target.remove(30L);
+        }
+
+        // when - action or the behaviour that we are going to test
+        // then - verify the output
+        for (String query : List.of("s", "sa", "sal", "salla3", "gmail", "mail", "ail", "mallesh1", "sal mal",
+                "s m", "s gmail", "shiva m @mail", "a b c d e", "x")) {
+            for (int limit : List.of(1, 10, 100)) {
+                assertThat(ranked.search(query, limit)).as(query + " " + limit)
+                        .isEqualTo(written.search(query, limit));
+            }
+        }
+        assertThat(ranked.search("s", 10)).first().extracting(EmployeeView::id).isEqualTo(5L);
+        assertThat(ranked.search("gmail", 10)).first().extracting(EmployeeView::id).isEqualTo(11L);
+    }
+}
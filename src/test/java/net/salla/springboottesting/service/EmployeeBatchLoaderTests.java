@@ -0,0 +1,122 @@
+package net.salla.springboottesting.service;
+
+import net.salla.springboottesting.model.Employee;
+import net.salla.springboottesting.service.impl.EmployeeBatchLoader;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmployeeBatchLoaderTests {
+
+    //Junit test for a lookup without concurrent lookups
+    @DisplayName("Junit test for a lookup without concurrent lookups")
+    @Test
+    public void givenSingleCaller_whenLoad_thenUseSingleIdQuery() {
+
+        // given - precondition  or  setup
+        EmployeeBatchLoader batchLoader = new EmployeeBatchLoader(Duration.ofSeconds(5), 100);
+        AtomicInteger batchLoads = new AtomicInteger();
+
+        // when - action or the behaviour that we are going to test
+        long start = System.nanoTime();
+        Optional<Employee> employee = batchLoader.load(1L, id -> Optional.of(employee(id)), ids -> {
+            batchLoads.incrementAndGet();
+            return List.of();
+        });
+
+        // then - verify the output
+        assertThat(employee).map(Employee::getId).contains(1L);
+        assertThat(batchLoads.get()).isZero();
+        assertThat(System.nanoTime() - start).isLessThan(Duration.ofSeconds(1).toNanos());
+    }
+
+    //Junit test for concurrent lookups
+    @DisplayName("Junit test for concurrent lookups")
+    @Test
+    public void givenConcurrentCallers_whenLoad_thenShareOneInQuery() throws Exception {
+
+        // given - precondition  or  setup
+        int callers = 8;
+        EmployeeBatchLoader batchLoader = new EmployeeBatchLoader(Duration.ofSeconds(5), callers - 1);
+        List<List<Long>> batches = new CopyOnWriteArrayList<>();
+        CountDownLatch firstLoadStarted = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+
+        // when - action or the behaviour that we are going to test
+        // the first caller blocks inside a single id load, so the next ones find a lookup in flight
+        // and collect into one batch that is closed as soon as it is full
+        List<Future<Optional<Employee>>> results = new ArrayList<>();
+        results.add(executor.submit(() -> batchLoader.load(0L, id -> {
+            firstLoadStarted.countDown();
+            sleep(200);
+            return Optional.of(employee(id));
+        }, ids -> List.of())));
+        firstLoadStarted.await();
+        for (long id = 1; id < callers; id++) {
+            long employeeId = id;
+            results.add(executor.submit(() -> batchLoader.load(employeeId, key -> Optional.of(employee(key)), ids -> {
+                batches.add(ids);
+                return ids.stream().filter(key -> key != 4L).map(EmployeeBatchLoaderTests::employee).toList();
+            })));
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        // then - verify the output
+        assertThat(batches.stream().mapToInt(List::size).sum()).isEqualTo(callers - 1);
+        assertThat(batches.size()).isLessThan(callers - 1);
+        assertThat(results.get(4).get()).isEmpty();
+        for (int id = 0; id < callers; id++) {
+            if (id != 4) {
+                assertThat(results.get(id).get()).map(Employee::getId).contains((long) id);
+            }
+        }
+    }
+
+    //Junit test for a disabled batch window
+    @DisplayName("Junit test for a disabled batch window")
+    @Test
+    public void givenZeroWindow_whenLoad_thenAlwaysUseSingleIdQuery() {
+
+        // given - precondition  or  setup
+        EmployeeBatchLoader batchLoader = new EmployeeBatchLoader(Duration.ZERO, 100);
+
+        // when - action or the behaviour that we are going to test
+        Optional<Employee> employee = batchLoader.load(1L, id -> Optional.empty(), ids -> {
+            throw new IllegalStateException("batch query not expected");
+        });
+
+        // then - verify the output
+        assertThat(employee).isEmpty();
+    }
+
+    private static Employee employee(long id) {
+        return Employee.builder()
+                .id(id)
+                .firstName("salla")
+                .lastName("mallesh")
+                .email("salla" + id + "@gmail.com")
+                .build();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package net.salla.springboottesting.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import net.salla.springboottesting.cache.EmployeeCache;
+import net.salla.springboottesting.cache.EmployeeEmailFilter;
+import net.salla.springboottesting.dto.EmployeeImportResult;
+import net.salla.springboottesting.model.Employee;
+import net.salla.springboottesting.repository.EmployeeRepository;
+import net.salla.springboottesting.search.EmployeeSearchIndex;
+import net.salla.springboottesting.service.impl.EmployeeImportServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeImportServiceTests {
+    @Mock
+    private EmployeeRepository employeeRepository;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private EmployeeCache employeeCache;
+    @Mock
+    private EmployeeEmailFilter employeeEmailFilter;
+    @Mock
+    private EmployeeSearchIndex employeeSearchIndex;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private EmployeeImportServiceImpl employeeImportService;
+
+    @BeforeEach
+    public void setup() {
+        employeeImportService = new EmployeeImportServiceImpl(employeeRepository, entityManager,
+                employeeCache, employeeEmailFilter, employeeSearchIndex, new ObjectMapper(), transactionManager);
+    }
+
+    //Junit test for importing a json array
+    @DisplayName("Junit test for importing a json array")
+    @Test
+    public void givenJsonArray_whenImportJson_thenSaveValidRowsAndReportErrors() throws IOException {
+
+        // given - precondition  or  setup
+        String json = "[{\"firstName\":\"salla\",\"lastName\":\"mallesh\",\"email\":\"salla@gmail.com\"},"
+                + "{\"firstName\":\"shiva\",\"email\":\"shiva@gmail.com\"},"
+                + "{\"firstName\":\"durga\",\"lastName\":\"prasad\",\"email\":\"durga@gmail.com\"}]";
+        given(employeeEmailFilter.mightContain(any())).willReturn(true);
+        given(employeeRepository.findExistingEmails(any())).willReturn(List.of("durga@gmail.com"));
+
+        // when - action or the behaviour that we are going to test
+        EmployeeImportResult result = employeeImportService.importJson(stream(json));
+
+        // then - verify the output
+        assertThat(result.getProcessed()).isEqualTo(3);
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(EmployeeImportResult.RowError::getRow).containsExactlyInAnyOrder(2L, 3L);
+        verify(employeeRepository, times(1)).findExistingEmails(any());
+    }
+
+    //Junit test for importing csv rows in chunks
+    @DisplayName("Junit test for importing csv rows in chunks")
+    @Test
+    @SuppressWarnings("unchecked")
+    public void givenMoreRowsThanChunkSize_whenImportCsv_thenCommitOneChunkAtATime() throws IOException {
+
+        // given - precondition  or  setup
+        int rows = EmployeeImportService.CHUNK_SIZE + 1;
+        StringBuilder csv = new StringBuilder("firstName,lastName,email\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append("salla").append(i).append(",mallesh,salla").append(i).append("@gmail.com\n");
+        }
+        given(employeeEmailFilter.mightContain(any())).willReturn(false);
+
+        // when - action or the behaviour that we are going to test
+        EmployeeImportResult result = employeeImportService.importCsv(stream(csv.toString()));
+
+        // then - verify the output
+        ArgumentCaptor<List<Employee>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(employeeRepository, times(2)).saveAll(chunks.capture());
+        assertThat(result.getImported()).isEqualTo(rows);
+        assertThat(result.getFailed()).isZero();
+        verify(entityManager, times(2)).clear();
+        verify(employeeRepository, never()).findExistingEmails(any());
+    }
+
+    //Junit test for importing a chunk that violates a constraint
+    @DisplayName("Junit test for importing a chunk that violates a constraint")
+    @Test
+    public void givenChunkWithEmailUnknownToFilter_whenImportJson_thenImportRowByRowAndRejectOnlyThatRow() throws IOException {
+
+        // given - precondition  or  setup
+        String json = "[{\"firstName\":\"salla\",\"lastName\":\"mallesh\",\"email\":\"salla@gmail.com\"},"
+                + "{\"firstName\":\"shiva\",\"lastName\":\"shakti\",\"email\":\"shiva@gmail.com\"},"
+                + "{\"firstName\":\"durga\",\"lastName\":\"prasad\",\"email\":\"durga@gmail.com\"}]";
+        given(employeeEmailFilter.mightContain(any())).willReturn(false);
+        // the chunk fails on flush, then the second row on its own
+        willThrow(new DataIntegrityViolationException("uk_employees_email"))
+                .willDoNothing()
+                .willThrow(new DataIntegrityViolationException("uk_employees_email"))
+                .willDoNothing()
+                .given(employeeRepository).flush();
+
+        // when - action or the behaviour that we are going to test
+        EmployeeImportResult result = employeeImportService.importJson(stream(json));
+
+        // then - verify the output
+        assertThat(result.getProcessed()).isEqualTo(3);
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(EmployeeImportResult.RowError::getRow).containsExactly(2L);
+        verify(employeeRepository, times(4)).saveAll(any());
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
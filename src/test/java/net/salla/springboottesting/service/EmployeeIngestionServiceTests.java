@@ -0,0 +1,148 @@
+package net.salla.springboottesting.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.salla.springboottesting.cache.EmployeeCache;
+import net.salla.springboottesting.cache.EmployeeEmailFilter;
+import net.salla.springboottesting.dto.EmployeeIngestionStatus;
+import net.salla.springboottesting.exception.IngestionQueueFullException;
+import net.salla.springboottesting.exception.ResourceAlreadyExistsException;
+import net.salla.springboottesting.model.Employee;
+import net.salla.springboottesting.repository.EmployeeRepository;
+import net.salla.springboottesting.search.EmployeeSearchIndex;
+import net.salla.springboottesting.service.impl.EmployeeIngestionServiceImpl;
+import net.salla.springboottesting.service.impl.EmployeeMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeIngestionServiceTests {
+    @Mock
+    private EmployeeRepository employeeRepository;
+    @Mock
+    private EmployeeService employeeService;
+    @Mock
+    private EmployeeCache employeeCache;
+    @Mock
+    private EmployeeEmailFilter employeeEmailFilter;
+    @Mock
+    private EmployeeSearchIndex employeeSearchIndex;
+    @Mock
+    private EmployeeMetrics employeeMetrics;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private EmployeeIngestionServiceImpl employeeIngestionService;
+
+    @BeforeEach
+    public void setup() {
+        // the writer is only started by the tests that need it, until then the queue just fills up
+        employeeIngestionService = new EmployeeIngestionServiceImpl(employeeRepository, employeeService,
+                employeeCache, employeeEmailFilter, employeeSearchIndex, employeeMetrics, transactionManager,
+                new SimpleMeterRegistry(), 3, 10, Duration.ofMillis(10), Duration.ofSeconds(10),
+                Duration.ofMinutes(1), 100);
+    }
+
+    //Junit test for enqueue employee with a full queue
+    @DisplayName("Junit test for enqueue employee with a full queue")
+    @Test
+    public void givenFullQueue_whenEnqueue_thenThrowsIngestionQueueFullException() {
+
+        // given - precondition  or  setup
+        for (int i = 0; i < 3; i++) {
+            employeeIngestionService.enqueue(employee(i));
+        }
+
+        // when - action or the behaviour that we are going to test
+        // then - verify the output
+        assertThatThrownBy(() -> employeeIngestionService.enqueue(employee(3)))
+                .isInstanceOf(IngestionQueueFullException.class);
+    }
+
+    //Junit test for writing queued employees in one batch
+    @DisplayName("Junit test for writing queued employees in one batch")
+    @Test
+    public void givenQueuedEmployees_whenWritten_thenSaveOneBatchAndRejectTakenEmail() throws InterruptedException {
+
+        // given - precondition  or  setup
+        given(employeeEmailFilter.mightContain(anyString())).willReturn(true);
+        given(employeeRepository.findExistingEmails(any())).willReturn(List.of("salla1@gmail.com"));
+        given(employeeRepository.saveAllAndFlush(any())).willAnswer(invocation -> {
+            List<Employee> employees = invocation.getArgument(0);
+            employees.forEach(employee -> employee.setId(100 + employee.getFirstName().length()));
+            return employees;
+        });
+        String first = employeeIngestionService.enqueue(employee(0)).trackingId();
+        String taken = employeeIngestionService.enqueue(employee(1)).trackingId();
+        String last = employeeIngestionService.enqueue(employee(22)).trackingId();
+
+        // when - action or the behaviour that we are going to test
+        employeeIngestionService.start();
+        employeeIngestionService.shutdown();
+
+        // then - verify the output
+        verify(employeeRepository, times(1)).findExistingEmails(any());
+        verify(employeeRepository, times(1)).saveAllAndFlush(any());
+        assertThat(employeeIngestionService.getStatus(first)).contains(EmployeeIngestionStatus.created(first, 106));
+        assertThat(employeeIngestionService.getStatus(taken).orElseThrow().state())
+                .isEqualTo(EmployeeIngestionStatus.State.REJECTED);
+        assertThat(employeeIngestionService.getStatus(last)).contains(EmployeeIngestionStatus.created(last, 107));
+    }
+
+    //Junit test for writing a failed batch row by row
+    @DisplayName("Junit test for writing a failed batch row by row")
+    @Test
+    public void givenBatchFailure_whenWritten_thenSaveEachEmployeeOnItsOwn() throws InterruptedException {
+
+        // given - precondition  or  setup
+        given(employeeRepository.saveAllAndFlush(any()))
+                .willThrow(new DataIntegrityViolationException("uk_employees_email"));
+        ArgumentCaptor<Employee> saved = ArgumentCaptor.forClass(Employee.class);
+        given(employeeService.saveEmployee(saved.capture())).willAnswer(invocation -> {
+            Employee employee = invocation.getArgument(0);
+            if (employee.getEmail().equals("salla1@gmail.com")) {
+                throw new ResourceAlreadyExistsException("Employee already exits with given email: salla1@gmail.com");
+            }
+            employee.setId(7);
+            return employee;
+        });
+        String created = employeeIngestionService.enqueue(employee(0)).trackingId();
+        String taken = employeeIngestionService.enqueue(employee(1)).trackingId();
+
+        // when - action or the behaviour that we are going to test
+        employeeIngestionService.start();
+        employeeIngestionService.shutdown();
+
+        // then - verify the output
+        assertThat(saved.getAllValues()).extracting(Employee::getEmail)
+                .containsExactly("salla0@gmail.com", "salla1@gmail.com");
+        assertThat(employeeIngestionService.getStatus(created)).contains(EmployeeIngestionStatus.created(created, 7));
+        assertThat(employeeIngestionService.getStatus(taken).orElseThrow().state())
+                .isEqualTo(EmployeeIngestionStatus.State.REJECTED);
+    }
+
+    private static Employee employee(int i) {
+        return Employee.builder()
+                .firstName("salla" + i)
+                .lastName("mallesh")
+                .email("salla" + i + "@gmail.com")
+                .build();
+    }
+}
@@ -1,9 +1,20 @@
 package net.salla.springboottesting.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.salla.springboottesting.cache.EmployeeCache;
+import net.salla.springboottesting.cache.EmployeeEmailFilter;
+import net.salla.springboottesting.dto.EmployeePage;
+import net.salla.springboottesting.dto.EmployeeView;
+import net.salla.springboottesting.exception.ResourceAlreadyExistsException;
 import net.salla.springboottesting.exception.ResourceNotFoundException;
+import net.salla.springboottesting.exception.ResourceVersionConflictException;
 import net.salla.springboottesting.model.Employee;
 import net.salla.springboottesting.repository.EmployeeRepository;
+import net.salla.springboottesting.search.EmployeeSearchIndex;
+import net.salla.springboottesting.service.impl.EmployeeBatchLoader;
+import net.salla.springboottesting.service.impl.EmployeeMetrics;
 import net.salla.springboottesting.service.impl.EmployeeServiceImpl;
+import net.salla.springboottesting.service.impl.SingleFlight;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -13,6 +24,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.willDoNothing;
 import static org.mockito.Mockito.*;
@@ -21,11 +33,20 @@ import org.mockito.BDDMockito;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 
+import java.sql.SQLException;
+import java.time.Duration;
+
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @ExtendWith(MockitoExtension.class)
 //@ExtendWith(MockitoExtension.class) is a JUnit 5 annotation used in the Mockito framework
@@ -35,6 +56,21 @@ import java.util.Optional;
 public class EmployeeServiceTests {
     @Mock
     private EmployeeRepository employeeRepository;
+    @Mock
+    private EmployeeEmailFilter employeeEmailFilter;
+    @Spy
+    private EmployeeCache employeeCache = new EmployeeCache(100, Duration.ofMinutes(5), Duration.ofSeconds(5),
+            new SimpleMeterRegistry());
+    @Spy
+    private EmployeeBatchLoader employeeBatchLoader = new EmployeeBatchLoader(Duration.ofNanos(200_000), 100);
+    @Spy
+    private SingleFlight singleFlight = new SingleFlight(new SimpleMeterRegistry(), Duration.ofSeconds(2));
+
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @Spy
+    private EmployeeMetrics employeeMetrics = new EmployeeMetrics(meterRegistry);
+    @Mock
+    private EmployeeSearchIndex employeeSearchIndex;
     @InjectMocks
     private EmployeeServiceImpl employeeService;
 
@@ -60,8 +96,6 @@ public class EmployeeServiceTests {
 
         // given - precondition  or  setup
 
-        given(employeeRepository.findByEmail(employee.getEmail()))
-                .willReturn(Optional.empty());
         given(employeeRepository.save(employee)).willReturn(employee);
         System.out.println(employeeRepository);
         System.out.println(employeeService);
@@ -70,6 +104,8 @@ public class EmployeeServiceTests {
         System.out.println(savedEmployee);
         // then - verify the output
         assertThat(savedEmployee).isNotNull();
+        verify(employeeRepository, never()).findByEmail(any());
+        verify(employeeSearchIndex, times(1)).put(view(employee));
     }
 
     //Junit test for saveEmployee method which throw exception
@@ -79,17 +115,90 @@ public class EmployeeServiceTests {
 
         // given - precondition  or  setup
 
-        given(employeeRepository.findByEmail(employee.getEmail()))
-                .willReturn(Optional.of(employee));
+        given(employeeRepository.save(employee)).willThrow(duplicateEmailViolation());
         System.out.println(employeeRepository);
         System.out.println(employeeService);
         // when - action or the behaviour that we are going to test
-        org.junit.jupiter.api.Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+        org.junit.jupiter.api.Assertions.assertThrows(ResourceAlreadyExistsException.class, () -> {
             employeeService.saveEmployee(employee);
         });
 
         // then - verify the output
-        verify(employeeRepository, never()).save(any(Employee.class));
+        verify(employeeRepository, times(1)).save(any(Employee.class));
+        assertThat(meterRegistry.get("employee.duplicate.email.rejections").tag("operation", "saveEmployee")
+                .counter().count()).isEqualTo(1);
+    }
+
+    //Junit test for saveEmployee method which rethrow other constraint violations
+    @DisplayName("Junit test for saveEmployee method which rethrow other constraint violations")
+    @Test
+    public void givenOtherConstraintViolation_whenSaveEmployee_thenRethrowException() {
+
+        // given - precondition  or  setup
+        given(employeeRepository.save(employee)).willThrow(new DataIntegrityViolationException("first_name is null"));
+
+        // when - action or the behaviour that we are going to test
+        org.junit.jupiter.api.Assertions.assertThrows(DataIntegrityViolationException.class, () -> {
+            employeeService.saveEmployee(employee);
+        });
+    }
+
+    //Junit test for saveEmployees method
+    @DisplayName("Junit test for saveEmployees method")
+    @Test
+    public void givenEmployeeList_whenSaveEmployees_thenCheckEmailsOnceAndSaveAll() {
+        Employee employee1 = Employee.builder()
+                .firstName("shiva")
+                .lastName("gudeti")
+                .email("shiva@gmail.com")
+                .build();
+        // given - precondition  or  setup
+        given(employeeEmailFilter.mightContain(any())).willReturn(true);
+        given(employeeRepository.findExistingEmails(any())).willReturn(Collections.emptyList());
+        given(employeeRepository.saveAllAndFlush(List.of(employee, employee1))).willReturn(List.of(employee, employee1));
+
+        // when - action or the behaviour that we are going to test
+        List<Employee> savedEmployees = employeeService.saveEmployees(List.of(employee, employee1));
+
+        // then - verify the output
+        assertThat(savedEmployees).hasSize(2);
+        verify(employeeRepository, times(1)).findExistingEmails(any());
+        verify(employeeRepository, never()).findByEmail(any());
+    }
+
+    //Junit test for saveEmployees method with emails the filter rules out
+    @DisplayName("Junit test for saveEmployees method with certainly new emails")
+    @Test
+    public void givenNewEmails_whenSaveEmployees_thenSkipEmailQuery() {
+
+        // given - precondition  or  setup
+        given(employeeEmailFilter.mightContain(employee.getEmail())).willReturn(false);
+        given(employeeRepository.saveAllAndFlush(List.of(employee))).willReturn(List.of(employee));
+
+        // when - action or the behaviour that we are going to test
+        employeeService.saveEmployees(List.of(employee));
+
+        // then - verify the output
+        verify(employeeRepository, never()).findExistingEmails(any());
+        verify(employeeEmailFilter, times(1)).putAfterCommit(any());
+    }
+
+    //Junit test for saveEmployees method which throw exception
+    @DisplayName("Junit test for saveEmployees method which throw exception")
+    @Test
+    public void givenExistingEmailInList_whenSaveEmployees_thenThrowException() {
+
+        // given - precondition  or  setup
+        given(employeeEmailFilter.mightContain(employee.getEmail())).willReturn(true);
+        given(employeeRepository.findExistingEmails(any())).willReturn(List.of(employee.getEmail()));
+
+        // when - action or the behaviour that we are going to test
+        org.junit.jupiter.api.Assertions.assertThrows(ResourceAlreadyExistsException.class, () -> {
+            employeeService.saveEmployees(List.of(employee));
+        });
+
+        // then - verify the output
+        verify(employeeRepository, never()).saveAllAndFlush(any());
     }
 
     // Junit test for get all employees method
@@ -104,10 +213,10 @@ public class EmployeeServiceTests {
                 .build();
         // given - precondition  or  setup
 
-        given(employeeRepository.findAll()).willReturn(List.of(employee, employee1));
+        given(employeeRepository.findAllViews()).willReturn(List.of(view(employee), view(employee1)));
 
         // when - action or the behaviour that we are going to test
-        List<Employee> employeeList = employeeService.getAllEmployees();
+        List<EmployeeView> employeeList = employeeService.getAllEmployees();
 
         // then - verify the output
         assertThat(employeeList).isNotNull();
@@ -121,16 +230,71 @@ public class EmployeeServiceTests {
 
         // given - precondition  or  setup
 
-        given(employeeRepository.findAll()).willReturn(Collections.emptyList());
+        given(employeeRepository.findAllViews()).willReturn(Collections.emptyList());
 
         // when - action or the behaviour that we are going to test
-        List<Employee> employeeList = employeeService.getAllEmployees();
+        List<EmployeeView> employeeList = employeeService.getAllEmployees();
 
         // then - verify the output
         assertThat(employeeList).isEmpty();
         assertThat(employeeList.size()).isEqualTo(0);
     }
 
+    // Junit test for keyset pagination method
+    @DisplayName("Junit test for get employees after cursor method")
+    @Test
+    public void givenMoreEmployeesThanLimit_whenGetEmployeesAfter_thenReturnPageWithNextCursor() {
+        Employee employee1 = Employee.builder()
+                .id(2L)
+                .firstName("shiva")
+                .lastName("gudeti")
+                .email("shiva@gmail.com")
+                .build();
+        // given - precondition  or  setup
+        given(employeeRepository.findViewPageAfter(0L, PageRequest.of(0, 2)))
+                .willReturn(List.of(view(employee), view(employee1)));
+
+        // when - action or the behaviour that we are going to test
+        EmployeePage page = employeeService.getEmployeesAfter(0L, 1);
+
+        // then - verify the output
+        assertThat(page.getContent()).containsExactly(view(employee));
+        assertThat(page.getNextCursor()).isEqualTo(employee.getId());
+    }
+
+    // Junit test for keyset pagination method on the last page and with a too large limit
+    @DisplayName("Junit test for get employees after cursor method (last page)")
+    @Test
+    public void givenLimitAboveMaximum_whenGetEmployeesAfter_thenCapPageSizeAndReturnNoCursor() {
+
+        // given - precondition  or  setup
+        given(employeeRepository.findViewPageAfter(1L, PageRequest.of(0, EmployeeService.MAX_PAGE_SIZE + 1)))
+                .willReturn(List.of(view(employee)));
+
+        // when - action or the behaviour that we are going to test
+        EmployeePage page = employeeService.getEmployeesAfter(1L, Integer.MAX_VALUE);
+
+        // then - verify the output
+        assertThat(page.getContent()).hasSize(1);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    // Junit test for export employees method
+    @DisplayName("Junit test for export employees method")
+    @Test
+    public void givenEmployeeStream_whenExportEmployees_thenConsumeEachEmployee() {
+
+        // given - precondition  or  setup
+        given(employeeRepository.streamAllViews()).willReturn(Stream.of(view(employee)));
+        List<EmployeeView> exported = new ArrayList<>();
+
+        // when - action or the behaviour that we are going to test
+        employeeService.exportEmployees(exported::add);
+
+        // then - verify the output
+        assertThat(exported).containsExactly(view(employee));
+    }
+
     //Junit test for get employee by id
     @DisplayName("Junit test for get employee by id")
     @Test
@@ -144,21 +308,177 @@ public class EmployeeServiceTests {
         assertThat(savedEmployee).isNotNull();
     }
 
-    //Junit test for update employee method
-    @DisplayName("Junit test for update employee  method")
+    //Junit test for get employee by id served from the cache
+    @DisplayName("Junit test for get employee by id served from the cache")
     @Test
-    public void givenEmployeeObject_whenUpdateEmployee_thenReturnUpdatedEmployee() {
+    public void givenCachedEmployee_whenGetEmployeeByIdTwice_thenQueryDatabaseOnce() {
         // given - precondition  or  setup
-        given(employeeRepository.save(employee)).willReturn(employee);
-        employee.setFirstName("Salla");
-        employee.setLastName("Mallesh");
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+
+        // when - action or the behaviour that we are going to test
+        employeeService.getEmployeeById(1L);
+        Employee cachedEmployee = employeeService.getEmployeeById(1L).get();
+
+        // then - verify the output
+        assertThat(cachedEmployee.getEmail()).isEqualTo(employee.getEmail());
+        verify(employeeRepository, times(1)).findById(1L);
+    }
+
+    //Junit test for get employee by id with a cached miss
+    @DisplayName("Junit test for get employee by id with a cached miss")
+    @Test
+    public void givenMissingEmployee_whenGetEmployeeByIdTwice_thenQueryDatabaseOnce() {
+        // given - precondition  or  setup
+        given(employeeRepository.findById(5L)).willReturn(Optional.empty());
+
+        // when - action or the behaviour that we are going to test
+        employeeService.getEmployeeById(5L);
+        Optional<Employee> missingEmployee = employeeService.getEmployeeById(5L);
+
+        // then - verify the output
+        assertThat(missingEmployee).isEmpty();
+        verify(employeeRepository, times(1)).findById(5L);
+        assertThat(meterRegistry.get("employee.not.found").tag("operation", "getEmployeeById")
+                .counter().count()).isEqualTo(2);
+    }
+
+    //Junit test for get employee by email
+    @DisplayName("Junit test for get employee by email")
+    @Test
+    public void givenEmployeeEmail_whenGetEmployeeByEmail_thenReturnEmployeeObject() {
+        // given - precondition  or  setup
+        given(employeeRepository.findViewByEmail(employee.getEmail())).willReturn(Optional.of(view(employee)));
+
+        // when - action or the behaviour that we are going to test
+        Optional<EmployeeView> foundEmployee = employeeService.getEmployeeByEmail(employee.getEmail());
+
+        // then - verify the output
+        assertThat(foundEmployee).map(EmployeeView::id).contains(employee.getId());
+        verify(employeeRepository, never()).findByEmail(any());
+    }
+
+    //Junit test for get employee by email the email filter has not seen
+    @DisplayName("Junit test for get employee by email the email filter has not seen")
+    @Test
+    public void givenEmailMissingFromFilter_whenGetEmployeeByEmail_thenStillQueryDatabase() {
+        // given - precondition  or  setup
+        given(employeeRepository.findViewByEmail("other@gmail.com")).willReturn(Optional.of(view(employee)));
+
+        // when - action or the behaviour that we are going to test
+        Optional<EmployeeView> foundEmployee = employeeService.getEmployeeByEmail("other@gmail.com");
+
+        // then - verify the output
+        assertThat(foundEmployee).map(EmployeeView::id).contains(employee.getId());
+        verify(employeeEmailFilter, never()).mightContain(any());
+    }
+
+    //Junit test for search employees method
+    @DisplayName("Junit test for search employees method")
+    @Test
+    public void givenQueryAndTooLargeLimit_whenSearchEmployees_thenAskIndexForAtMostMaximum() {
+        // given - precondition  or  setup
+        given(employeeSearchIndex.search("sal", EmployeeService.MAX_SEARCH_RESULTS)).willReturn(List.of(view(employee)));
+
+        // when - action or the behaviour that we are going to test
+        List<EmployeeView> employees = employeeService.searchEmployees("sal", Integer.MAX_VALUE);
+
+        // then - verify the output
+        assertThat(employees).containsExactly(view(employee));
+        verify(employeeRepository, never()).findAll();
+    }
+
+    //Junit test for get employees by ids
+    @DisplayName("Junit test for get employees by ids")
+    @Test
+    public void givenPartlyCachedIds_whenGetEmployeesByIds_thenLoadOnlyMissingIdsInOneQuery() {
+        // given - precondition  or  setup
+        Employee employee1 = Employee.builder()
+                .id(2L)
+                .firstName("suresh")
+                .lastName("kuruma")
+                .email("kuruma@gmail.com")
+                .build();
+        employeeCache.put(employee);
+        given(employeeRepository.findAllById(List.of(2L, 3L))).willReturn(List.of(employee1));
+
+        // when - action or the behaviour that we are going to test
+        List<Employee> employees = employeeService.getEmployeesByIds(List.of(3L, 2L, 1L));
+
+        // then - verify the output
+        assertThat(employees).extracting(Employee::getId).containsExactly(2L, 1L);
+        verify(employeeRepository, times(1)).findAllById(any());
+        verify(employeeRepository, never()).findById(any());
+    }
+
+    //Junit test for get employees by ids with too many ids
+    @DisplayName("Junit test for get employees by ids with too many ids")
+    @Test
+    public void givenTooManyIds_whenGetEmployeesByIds_thenThrowsException() {
+        // given - precondition  or  setup
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= EmployeeService.MAX_BATCH_SIZE + 1; id++) {
+            ids.add(id);
+        }
+
+        // when - action or the behaviour that we are going to test
+        org.junit.jupiter.api.Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            employeeService.getEmployeesByIds(ids);
+        });
+
+        // then - verify the output
+        verify(employeeRepository, never()).findAllById(any());
+    }
+
+    //Junit test for replace employee method without a version from the client
+    @DisplayName("Junit test for replace employee method")
+    @Test
+    public void givenEmployeeObject_whenReplaceEmployee_thenUpdateCurrentVersionOnce() {
+        // given - precondition  or  setup
+        given(employeeRepository.findVersionById(1L)).willReturn(Optional.of(2L));
+        given(employeeRepository.replace(1L, 2L, "Salla", "Mallesh", "salla@gmail.com")).willReturn(1);
+        Employee changes = Employee.builder().firstName("Salla").lastName("Mallesh").email("salla@gmail.com").build();
 
         // when - action or the behaviour that we are going to test
-        Employee updatedEmployee = employeeService.updateEmployee(employee);
+        Employee updatedEmployee = employeeService.replaceEmployee(1L, changes, null).get();
+
         // then - verify the output
         assertThat(updatedEmployee.getFirstName()).isEqualTo("Salla");
-        assertThat(updatedEmployee.getLastName()).isEqualTo("Mallesh");
+        assertThat(updatedEmployee.getVersion()).isEqualTo(3L);
+        verify(employeeRepository, never()).findById(any());
+        verify(employeeRepository, never()).save(any());
+    }
+
+    //Junit test for replace employee method with a stale version
+    @DisplayName("Junit test for replace employee method with a stale version")
+    @Test
+    public void givenStaleVersion_whenReplaceEmployee_thenThrowException() {
+        // given - precondition  or  setup
+        given(employeeRepository.replace(1L, 1L, "Salla", "Mallesh", "salla@gmail.com")).willReturn(0);
+        given(employeeRepository.existsById(1L)).willReturn(true);
+        Employee changes = Employee.builder().firstName("Salla").lastName("Mallesh").email("salla@gmail.com").build();
+
+        // when - action or the behaviour that we are going to test
+        org.junit.jupiter.api.Assertions.assertThrows(ResourceVersionConflictException.class, () -> {
+            employeeService.replaceEmployee(1L, changes, 1L);
+        });
 
+        // then - verify the output
+        verify(employeeRepository, never()).findVersionById(anyLong());
+    }
+
+    //Junit test for patch employee method with a missing employee
+    @DisplayName("Junit test for patch employee method with a missing employee")
+    @Test
+    public void givenMissingEmployee_whenPatchEmployee_thenThrowException() {
+        // given - precondition  or  setup
+        given(employeeRepository.patch(5L, null, null, null, "salla@gmail.com")).willReturn(0);
+        given(employeeRepository.existsById(5L)).willReturn(false);
+        Employee changes = Employee.builder().email("salla@gmail.com").build();
+
+        // when - action or the behaviour that we are going to test
+        org.junit.jupiter.api.Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+            employeeService.patchEmployee(5L, changes, null);
+        });
     }
 
     //Junit test for delete method
@@ -168,13 +488,62 @@ public class EmployeeServiceTests {
 
         long employeeId = 1L;
         // given - precondition  or  setup
-        willDoNothing().given(employeeRepository).deleteById(employeeId);
+        given(employeeRepository.deleteEmployeeById(employeeId)).willReturn(1);
 
         // when - action or the behaviour that we are going to test
         employeeService.deleteEmployee(employeeId);
 
         // then - verify the output
-        verify(employeeRepository,times(1)).deleteById(employeeId);
+        verify(employeeRepository,times(1)).deleteEmployeeById(employeeId);
+        verify(employeeRepository, never()).deleteById(any());
+        verify(employeeCache, times(1)).evictAfterCommit(List.of(employeeId));
+        verify(employeeSearchIndex, times(1)).removeAfterCommit(List.of(employeeId));
+
+    }
+
+    //Junit test for delete method with a missing employee
+    @DisplayName("Junit test for delete method with a missing employee")
+    @Test
+    public void givenMissingEmployeeId_whenDeleteEmployee_thenThrowException() {
+
+        // given - precondition  or  setup
+        given(employeeRepository.deleteEmployeeById(5L)).willReturn(0);
+
+        // when - action or the behaviour that we are going to test
+        org.junit.jupiter.api.Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+            employeeService.deleteEmployee(5L);
+        });
+
+        // then - verify the output
+        verify(employeeCache, never()).evictAfterCommit(any());
+        assertThat(meterRegistry.get("employee.not.found").tag("operation", "deleteEmployee")
+                .counter().count()).isEqualTo(1);
+    }
+
+    //Junit test for bulk delete method
+    @DisplayName("Junit test for bulk delete method")
+    @Test
+    public void givenEmployeeIds_whenDeleteEmployees_thenDeleteInOneStatement() {
+
+        // given - precondition  or  setup
+        given(employeeRepository.deleteEmployeesByIds(List.of(1L, 2L, 3L))).willReturn(2);
+
+        // when - action or the behaviour that we are going to test
+        int deleted = employeeService.deleteEmployees(List.of(1L, 2L, 3L));
+
+        // then - verify the output
+        assertThat(deleted).isEqualTo(2);
+        verify(employeeEmailFilter, times(1)).recordDeletions(2);
+    }
+
+    private static DataIntegrityViolationException duplicateEmailViolation() {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("Duplicate entry", new SQLException("Duplicate entry"),
+                        "employees.uk_employees_email"));
+    }
 
+    private static EmployeeView view(Employee employee) {
+        return new EmployeeView(employee.getId(), employee.getFirstName(), employee.getLastName(),
+                employee.getEmail(), employee.getVersion());
     }
 }
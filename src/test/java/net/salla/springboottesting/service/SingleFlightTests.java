@@ -0,0 +1,152 @@
+package net.salla.springboottesting.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.salla.springboottesting.exception.ResourceLookupTimeoutException;
+import net.salla.springboottesting.service.impl.SingleFlight;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SingleFlightTests {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private SingleFlight singleFlight;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight(meterRegistry, Duration.ofSeconds(5));
+    }
+
+    //Junit test for concurrent lookups of the same key
+    @DisplayName("Junit test for concurrent lookups of the same key")
+    @Test
+    public void givenConcurrentCallers_whenExecuteSameKey_thenRunLookupOnce() throws Exception {
+
+        // given - precondition  or  setup
+        int callers = 8;
+        AtomicInteger lookups = new AtomicInteger();
+        CountDownLatch lookupStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+
+        // when - action or the behaviour that we are going to test
+        List<Future<String>> results = new ArrayList<>();
+        results.add(executor.submit(() -> singleFlight.execute("email", "salla@gmail.com", () -> {
+            lookups.incrementAndGet();
+            lookupStarted.countDown();
+            await(release);
+            return "salla";
+        })));
+        lookupStarted.await();
+        for (int i = 1; i < callers; i++) {
+            results.add(executor.submit(() -> singleFlight.execute("email", "salla@gmail.com", () -> {
+                lookups.incrementAndGet();
+                return "other";
+            })));
+        }
+        while (deduplicated() < callers - 1) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        // then - verify the output
+        assertThat(lookups.get()).isEqualTo(1);
+        for (Future<String> result : results) {
+            assertThat(result.get()).isEqualTo("salla");
+        }
+    }
+
+    //Junit test for waiting longer than the timeout
+    @DisplayName("Junit test for waiting longer than the timeout")
+    @Test
+    public void givenSlowLookup_whenWaitLongerThanTimeout_thenThrowException() throws Exception {
+
+        // given - precondition  or  setup
+        singleFlight = new SingleFlight(meterRegistry, Duration.ofMillis(50));
+        CountDownLatch lookupStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.submit(() -> singleFlight.execute("id", 1L, () -> {
+            lookupStarted.countDown();
+            await(release);
+            return "salla";
+        }));
+        lookupStarted.await();
+
+        // when - action or the behaviour that we are going to test
+        try {
+            org.junit.jupiter.api.Assertions.assertThrows(ResourceLookupTimeoutException.class, () -> {
+                singleFlight.execute("id", 1L, () -> "other");
+            });
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+
+        // then - verify the output
+        assertThat(meterRegistry.get("employee.single.flight.calls").tag("result", "timed.out").counter().count())
+                .isEqualTo(1);
+    }
+
+    //Junit test for an interrupted lookup
+    @DisplayName("Junit test for an interrupted lookup")
+    @Test
+    public void givenInterruptedLookup_whenOthersWait_thenOneOfThemRunsItAgain() throws Exception {
+
+        // given - precondition  or  setup
+        CountDownLatch lookupStarted = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<String> interrupted = executor.submit(() -> singleFlight.execute("id", 1L, () -> {
+            lookupStarted.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("lookup interrupted", e);
+            }
+            return "salla";
+        }));
+        lookupStarted.await();
+        Future<String> waiting = executor.submit(() -> singleFlight.execute("id", 1L, () -> "again"));
+        while (deduplicated() < 1) {
+            Thread.sleep(1);
+        }
+
+        // when - action or the behaviour that we are going to test
+        interrupted.cancel(true);
+
+        // then - verify the output
+        assertThat(waiting.get(5, TimeUnit.SECONDS)).isEqualTo("again");
+        executor.shutdown();
+    }
+
+    private double deduplicated() {
+        return meterRegistry.find("employee.single.flight.calls").tag("result", "deduplicated").counters().stream()
+                .mapToDouble(counter -> counter.count())
+                .sum();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}